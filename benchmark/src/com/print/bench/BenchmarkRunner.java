@@ -0,0 +1,187 @@
+package com.print.bench;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 不依赖第三方库的小型基准测试框架：预热若干轮后按固定时长测量，
+ * 每轮内按批次调用被测操作（批次大小在预热时自动调到每批约 100 微秒，避免计时本身成为开销）。
+ * 结果按 JMH 的 JSON 格式写出（benchmark / params / primaryMetric），可以直接用 JMH 的可视化工具对比不同版本
+ * @Version: 1.0
+ */
+public final class BenchmarkRunner {
+    /**
+     * 被测操作，返回值交给 sink 防止被 JIT 消除
+     */
+    public interface Operation {
+        long run();
+    }
+
+    /**
+     * 单个基准的测量结果，单位 ns/op
+     */
+    public static final class Result {
+        final String benchmark;
+        final Map<String, String> params;
+        final double[] samples;
+
+        Result(String benchmark, Map<String, String> params, double[] samples) {
+            this.benchmark = benchmark;
+            this.params = params;
+            this.samples = samples;
+        }
+
+        double mean() {
+            double sum = 0;
+            for (double s : samples) sum += s;
+            return sum / samples.length;
+        }
+
+        // 99.9% 置信区间半宽（按正态近似）
+        double error() {
+            if (samples.length < 2) return Double.NaN;
+            double mean = mean();
+            double sq = 0;
+            for (double s : samples) sq += (s - mean) * (s - mean);
+            double stddev = Math.sqrt(sq / (samples.length - 1));
+            return 3.29 * stddev / Math.sqrt(samples.length);
+        }
+    }
+
+    private static final long TARGET_BATCH_NANOS = 100_000L;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final Pattern filter;
+    private final List<Result> results = new ArrayList<>();
+    // 被测操作的返回值累加到这里，读出后 JIT 无法删除调用
+    private long sink;
+
+    /**
+     * @param filter 只运行名字匹配的基准，null 表示全部
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.filter = filter == null || filter.isEmpty() ? null : Pattern.compile(filter);
+    }
+
+    public boolean accepts(String benchmark) {
+        return filter == null || filter.matcher(benchmark).find();
+    }
+
+    /**
+     * 测量一个操作，params 为 "名字", "值" 交替排列
+     */
+    public void measure(String benchmark, Operation operation, String... params) {
+        if (!accepts(benchmark)) return;
+        Map<String, String> paramMap = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < params.length; i += 2) paramMap.put(params[i], params[i + 1]);
+
+        long batch = 1;
+        for (int i = 0; i < warmupIterations; i++) {
+            batch = calibrate(operation, batch);
+            iteration(operation, batch);
+        }
+        double[] samples = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            samples[i] = iteration(operation, batch);
+        }
+        Result result = new Result(benchmark, paramMap, samples);
+        results.add(result);
+        System.out.println(String.format(Locale.ROOT, "%-32s %-34s %14.1f +- %10.1f ns/op",
+                benchmark, paramMap, result.mean(), result.error()));
+    }
+
+    // 加大批次直到一批的耗时达到目标
+    private long calibrate(Operation operation, long batch) {
+        while (batch < Long.MAX_VALUE / 2) {
+            long start = System.nanoTime();
+            for (long i = 0; i < batch; i++) sink += operation.run();
+            if (System.nanoTime() - start >= TARGET_BATCH_NANOS) break;
+            batch *= 2;
+        }
+        return batch;
+    }
+
+    // 运行一轮，返回平均每次操作的纳秒数
+    private double iteration(Operation operation, long batch) {
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (long i = 0; i < batch; i++) sink += operation.run();
+            ops += batch;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        return (double) elapsed / ops;
+    }
+
+    public long getSink() {
+        return sink;
+    }
+
+    /**
+     * 按 JMH 的 JSON 结果格式写出
+     */
+    public void writeJson(String path) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            sb.append("  {\n");
+            sb.append("    \"benchmark\": ").append(quote(r.benchmark)).append(",\n");
+            sb.append("    \"mode\": \"avgt\",\n");
+            sb.append("    \"jvm\": ").append(quote(System.getProperty("java.home"))).append(",\n");
+            sb.append("    \"jdkVersion\": ").append(quote(System.getProperty("java.version"))).append(",\n");
+            sb.append("    \"warmupIterations\": ").append(warmupIterations).append(",\n");
+            sb.append("    \"measurementIterations\": ").append(measurementIterations).append(",\n");
+            sb.append("    \"measurementTime\": ").append(quote(iterationNanos / 1_000_000L + " ms")).append(",\n");
+            sb.append("    \"params\": {");
+            int p = 0;
+            for (Map.Entry<String, String> e : r.params.entrySet()) {
+                if (p++ > 0) sb.append(", ");
+                sb.append(quote(e.getKey())).append(": ").append(quote(e.getValue()));
+            }
+            sb.append("},\n");
+            sb.append("    \"primaryMetric\": {\n");
+            sb.append("      \"score\": ").append(number(r.mean())).append(",\n");
+            sb.append("      \"scoreError\": ").append(number(r.error())).append(",\n");
+            sb.append("      \"scoreUnit\": \"ns/op\",\n");
+            sb.append("      \"rawData\": [[");
+            for (int s = 0; s < r.samples.length; s++) {
+                if (s > 0) sb.append(", ");
+                sb.append(number(r.samples[s]));
+            }
+            sb.append("]]\n");
+            sb.append("    }\n");
+            sb.append(i + 1 < results.size() ? "  },\n" : "  }\n");
+        }
+        sb.append("]\n");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8)) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "\"NaN\"" : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "null";
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,117 @@
+package com.print.bench;
+
+import com.print.PanelHitRegions;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框玻璃面板的命中测试延迟：用不同深度的合成组件树（嵌套面板，叶子为带滚动条的滚动面板，
+ * 模拟编辑器的组件结构）测量 PanelHitRegions 缓存命中时的 hitTest、布局变化后重建缓存的 hitTest，
+ * 以及每次事件都遍历组件树查找滚动条的旧做法作为对照。
+ * 无界面运行时组件不处于显示状态，PanelHitRegions 不会缓存滚动条矩形，但重建时仍完整遍历组件树
+ * @Version: 1.0
+ */
+final class HitTestBenchmark {
+    private static final int[] DEPTHS = {4, 12, 32};
+    private static final int FANOUT = 3;
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int BORDER = 8;
+    private static final int TITLE = 25;
+    private static final int CLOSE = 25;
+    // 一组覆盖标题栏、边框、角落和内容区的鼠标位置
+    private static final int[][] POINTS = {
+            {400, 10}, {790, 10}, {3, 300}, {797, 300}, {400, 597}, {3, 3}, {797, 597},
+            {400, 300}, {780, 300}, {400, 580}, {120, 40}, {700, 500}
+    };
+
+    private HitTestBenchmark() {
+    }
+
+    static void run(BenchmarkRunner runner) {
+        for (int depth : DEPTHS) {
+            run(runner, depth);
+        }
+    }
+
+    private static void run(BenchmarkRunner runner, int depth) {
+        JPanel frame = new JPanel(null);
+        frame.setSize(WIDTH, HEIGHT);
+        JPanel contentRoot = new JPanel(null);
+        contentRoot.setBounds(0, TITLE, WIDTH, HEIGHT - TITLE);
+        frame.add(contentRoot);
+        JPanel glassPane = new JPanel(null);
+        glassPane.setBounds(0, 0, WIDTH, HEIGHT);
+        int components = build(contentRoot, depth, WIDTH, HEIGHT - TITLE);
+        String treeDepth = String.valueOf(depth);
+        String treeSize = String.valueOf(components);
+
+        PanelHitRegions regions = new PanelHitRegions(frame, frame, glassPane, BORDER, TITLE, CLOSE);
+        int[] index = {0};
+
+        runner.measure("hitTest.cached", () -> {
+            int[] p = POINTS[index[0]++ % POINTS.length];
+            return regions.hitTest(p[0], p[1]);
+        }, "depth", treeDepth, "components", treeSize);
+
+        runner.measure("hitTest.afterInvalidate", () -> {
+            regions.invalidate();
+            int[] p = POINTS[index[0]++ % POINTS.length];
+            return regions.hitTest(p[0], p[1]);
+        }, "depth", treeDepth, "components", treeSize);
+
+        Point point = new Point();
+        runner.measure("hitTest.uncachedTreeWalk", () -> {
+            int[] p = POINTS[index[0]++ % POINTS.length];
+            point.setLocation(p[0], p[1]);
+            return isOnAnyScrollBar(frame, point, glassPane) ? 1 : 0;
+        }, "depth", treeDepth, "components", treeSize);
+    }
+
+    // 每层 FANOUT 个子面板，只沿第一个子面板继续向下，叶子放滚动面板；返回组件总数
+    private static int build(JPanel parent, int depth, int width, int height) {
+        if (depth == 0) {
+            JScrollPane scrollPane = new JScrollPane(new JPanel(),
+                    ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_ALWAYS);
+            scrollPane.setBounds(0, 0, width, height);
+            scrollPane.doLayout();
+            parent.add(scrollPane);
+            return 1 + count(scrollPane);
+        }
+        int count = 0;
+        for (int i = 0; i < FANOUT; i++) {
+            JPanel child = new JPanel(null);
+            child.setBounds(0, 0, width, height);
+            parent.add(child);
+            count++;
+            if (i == 0) count += build(child, depth - 1, width, height);
+        }
+        return count;
+    }
+
+    private static int count(Container container) {
+        int count = 0;
+        for (Component child : container.getComponents()) {
+            count++;
+            if (child instanceof Container) count += count((Container) child);
+        }
+        return count;
+    }
+
+    // 对照组：每次鼠标事件都递归遍历组件树并换算坐标查找滚动条
+    private static boolean isOnAnyScrollBar(Component comp, Point mouse, Component glassPane) {
+        if (comp instanceof JScrollBar) {
+            Point p = SwingUtilities.convertPoint(glassPane, mouse, comp);
+            return p.x >= 0 && p.y >= 0 && p.x < comp.getWidth() && p.y < comp.getHeight();
+        }
+        if (comp instanceof Container) {
+            for (Component child : ((Container) comp).getComponents()) {
+                if (isOnAnyScrollBar(child, mouse, glassPane)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package com.print.bench;
+
+import com.print.OverlayBackground;
+import com.print.OverlayLoupe;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Random;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 截图遮罩每帧绘制的耗时：在 1080p / 4K / 8K 的合成截图上测量整屏重绘、
+ * 拖动选区时的增量重绘（只重绘新旧选区的并集），放大镜跟随光标时的每帧耗时，以及截图后生成变暗副本的预合成耗时（新分配缓冲区和复用缓冲区两种情况）。
+ * 无界面运行时没有显存加速，测到的是软件绘制路径
+ * @Version: 1.0
+ */
+final class OverlayFrameBenchmark {
+    private static final int[][] RESOLUTIONS = {{1920, 1080}, {3840, 2160}, {7680, 4320}};
+    private static final String[] NAMES = {"1080p", "4K", "8K"};
+    // 模拟拖动中的选区：固定大小，每帧移动几个像素
+    private static final int SELECTION_WIDTH = 640;
+    private static final int SELECTION_HEIGHT = 400;
+    private static final int STEP = 7;
+
+    private OverlayFrameBenchmark() {
+    }
+
+    static void run(BenchmarkRunner runner) {
+        // 8K 截图单张就有 130MB，没有选中任何遮罩基准时不分配
+        if (!runner.accepts("overlay.fullFrame") && !runner.accepts("overlay.incrementalFrame")
+                && !runner.accepts("overlay.precompose") && !runner.accepts("overlay.precomposePooled")
+                && !runner.accepts("overlay.loupe")) return;
+        for (int i = 0; i < RESOLUTIONS.length; i++) {
+            run(runner, NAMES[i], RESOLUTIONS[i][0], RESOLUTIONS[i][1]);
+        }
+    }
+
+    private static void run(BenchmarkRunner runner, String name, int width, int height) {
+        BufferedImage screenshot = syntheticScreenshot(width, height);
+        OverlayBackground background = new OverlayBackground(screenshot, width, height);
+        // 遮罩窗口的后备缓冲区
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Component component = new JPanel();
+        Graphics2D g = target.createGraphics();
+        Rectangle clip = new Rectangle();
+        int[] position = {0, 0};
+
+        try {
+            runner.measure("overlay.fullFrame", () -> {
+                nextSelection(position, width, height);
+                g.setClip(0, 0, width, height);
+                background.paint(g, component, 0, 0, position[0], position[1], SELECTION_WIDTH, SELECTION_HEIGHT);
+                return position[0];
+            }, "resolution", name);
+
+            runner.measure("overlay.incrementalFrame", () -> {
+                int oldX = position[0];
+                int oldY = position[1];
+                nextSelection(position, width, height);
+                // 与 CaptureOverlay 一致：重绘新旧选区的并集，外扩边框宽度
+                clip.setBounds(Math.min(oldX, position[0]) - 2, Math.min(oldY, position[1]) - 2,
+                        SELECTION_WIDTH + Math.abs(position[0] - oldX) + 4,
+                        SELECTION_HEIGHT + Math.abs(position[1] - oldY) + 4);
+                g.setClip(clip);
+                background.paint(g, component, 0, 0, position[0], position[1], SELECTION_WIDTH, SELECTION_HEIGHT);
+                return position[1];
+            }, "resolution", name);
+
+            // 放大镜跟随光标移动：每帧重绘放大镜区域，光标移进新的块时才重新渲染放大块
+            OverlayLoupe loupe = new OverlayLoupe();
+            Rectangle loupeBounds = new Rectangle();
+            FontMetrics fm = g.getFontMetrics();
+            int[] cursor = {0, 0};
+            runner.measure("overlay.loupe", () -> {
+                cursor[0] = (cursor[0] + STEP) % width;
+                cursor[1] = (cursor[1] + STEP / 2 + 1) % height;
+                loupe.computeBounds(cursor[0], cursor[1], width, height, fm, loupeBounds);
+                g.setClip(loupeBounds.x, loupeBounds.y, loupeBounds.width, loupeBounds.height);
+                background.paint(g, component, 0, 0, 0, 0, 0, 0);
+                loupe.paint(g, background, 0, 0, cursor[0], cursor[1], cursor[0], cursor[1], loupeBounds);
+                return loupeBounds.x;
+            }, "resolution", name);
+            loupe.dispose();
+
+            runner.measure("overlay.precompose", () -> {
+                OverlayBackground copy = new OverlayBackground(screenshot, width, height);
+                copy.flush();
+                return copy.getWidth();
+            }, "resolution", name);
+
+            // 与 ScreenCaptureEngine 一致：复用上一次的变暗缓冲区
+            BufferedImage[] pooled = {null};
+            runner.measure("overlay.precomposePooled", () -> {
+                OverlayBackground copy = new OverlayBackground(screenshot, width, height, pooled[0]);
+                pooled[0] = copy.flush();
+                return copy.getWidth();
+            }, "resolution", name);
+        } finally {
+            g.dispose();
+            background.flush();
+        }
+    }
+
+    private static void nextSelection(int[] position, int width, int height) {
+        position[0] += STEP;
+        position[1] += STEP / 2 + 1;
+        if (position[0] + SELECTION_WIDTH > width) position[0] = 0;
+        if (position[1] + SELECTION_HEIGHT > height) position[1] = 0;
+    }
+
+    // 按行交替的色块加少量噪点，接近代码编辑器截图的内容分布，避免纯色图被绘制管线特殊处理
+    private static BufferedImage syntheticScreenshot(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int base = (y / 18) % 2 == 0 ? 0x2B2B2B : 0x313335;
+            for (int x = 0; x < width; x++) {
+                pixels[row + x] = random.nextInt(16) == 0 ? random.nextInt(0xFFFFFF) : base;
+            }
+        }
+        return image;
+    }
+}
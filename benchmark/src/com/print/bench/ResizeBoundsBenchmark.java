@@ -0,0 +1,46 @@
+package com.print.bench;
+
+import com.print.FloatingPanelGroup;
+import com.print.PanelHitRegions;
+
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 拖拽/缩放的边界计算吞吐：按移动和八个缩放方向轮流调用 FloatingPanelGroup.dragBounds，
+ * 分别测量单个悬浮框和整组（8、32 个成员）每次鼠标事件的计算量，不涉及窗口 setBounds
+ * @Version: 1.0
+ */
+final class ResizeBoundsBenchmark {
+    private static final int[] GROUP_SIZES = {1, 8, 32};
+    private static final int REGIONS = PanelHitRegions.MOVE + 1;
+
+    private ResizeBoundsBenchmark() {
+    }
+
+    static void run(BenchmarkRunner runner) {
+        for (int size : GROUP_SIZES) {
+            Rectangle[] starts = new Rectangle[size];
+            Rectangle[] targets = new Rectangle[size];
+            for (int i = 0; i < size; i++) {
+                starts[i] = new Rectangle(100 + i * 40, 80 + i * 30, 600, 400);
+                targets[i] = new Rectangle();
+            }
+            int[] step = {0};
+            runner.measure("bounds.dragUpdate", () -> {
+                int s = step[0]++;
+                int region = s % REGIONS;
+                // 位移来回摆动，覆盖缩到最小尺寸的分支
+                int dx = (s * 7) % 900 - 450;
+                int dy = (s * 5) % 700 - 350;
+                long checksum = 0;
+                for (int i = 0; i < starts.length; i++) {
+                    FloatingPanelGroup.dragBounds(starts[i], region, dx, dy, targets[i]);
+                    checksum += targets[i].width + targets[i].x;
+                }
+                return checksum;
+            }, "panels", String.valueOf(size));
+        }
+    }
+}
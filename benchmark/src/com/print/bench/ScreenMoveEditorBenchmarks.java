@@ -0,0 +1,34 @@
+package com.print.bench;
+
+import java.io.IOException;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 基准测试入口，无界面运行。可用的系统属性：
+ * bench.filter（正则，只运行名字匹配的基准）、bench.warmup / bench.iterations（轮数）、
+ * bench.time（每轮毫秒数）、bench.out（JSON 结果文件，默认 benchmark-results.json）。
+ * 8K 遮罩基准需要约 1GB 堆，建议 -Xmx2g
+ * @Version: 1.0
+ */
+public final class ScreenMoveEditorBenchmarks {
+    private ScreenMoveEditorBenchmarks() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        BenchmarkRunner runner = new BenchmarkRunner(
+                Integer.getInteger("bench.warmup", 5),
+                Integer.getInteger("bench.iterations", 10),
+                Long.getLong("bench.time", 1000L),
+                System.getProperty("bench.filter"));
+
+        OverlayFrameBenchmark.run(runner);
+        HitTestBenchmark.run(runner);
+        ResizeBoundsBenchmark.run(runner);
+
+        String out = System.getProperty("bench.out", "benchmark-results.json");
+        runner.writeJson(out);
+        System.out.println("Results written to " + out + " (sink " + runner.getSink() + ")");
+    }
+}
@@ -0,0 +1,130 @@
+package com.print;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框拖拽/缩放的边界合并器：鼠标事件只登记目标边界，
+ * 由一个按屏幕刷新率节拍的定时器每帧最多 setBounds 一次；手势停顿或结束时回调 onSettle
+ * @Version: 1.0
+ */
+public final class BoundsCoalescer {
+    private static final BoundsCoalescer INSTANCE = new BoundsCoalescer();
+    // 超过这个时间没有新的边界即视为手势停顿
+    private static final long SETTLE_NANOS = 150_000_000L;
+
+    private static class Entry {
+        final Rectangle pending = new Rectangle();
+        boolean hasPending;
+        long lastRequestNanos;
+        Runnable onSettle;
+    }
+
+    private final Map<Window, Entry> entries = new IdentityHashMap<>();
+    private final Timer timer;
+    // 统计：收到的边界请求数和实际应用的 setBounds 次数
+    private long requestCount;
+    private long appliedCount;
+
+    private BoundsCoalescer() {
+        timer = new Timer(frameIntervalMillis(), e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    public static BoundsCoalescer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 登记 window 的目标边界，下一帧统一应用。需在 EDT 上调用
+     *
+     * @param onSettle 手势停顿或结束时执行一次，可为 null
+     */
+    public void request(Window window, Rectangle bounds, Runnable onSettle) {
+        Entry entry = entries.get(window);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(window, entry);
+        }
+        entry.pending.setBounds(bounds);
+        entry.hasPending = true;
+        entry.lastRequestNanos = System.nanoTime();
+        entry.onSettle = onSettle;
+        requestCount++;
+        if (!timer.isRunning()) timer.start();
+    }
+
+    /**
+     * 手势结束：立即应用尚未生效的边界并执行 onSettle
+     */
+    public void finish(Window window) {
+        Entry entry = entries.remove(window);
+        if (entry == null) return;
+        apply(window, entry);
+        settle(entry);
+        if (entries.isEmpty()) timer.stop();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Window, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Window, Entry> e = it.next();
+            Entry entry = e.getValue();
+            if (entry.hasPending) {
+                apply(e.getKey(), entry);
+            } else if (now - entry.lastRequestNanos > SETTLE_NANOS) {
+                it.remove();
+                settle(entry);
+            }
+        }
+        if (entries.isEmpty()) timer.stop();
+    }
+
+    private void apply(Window window, Entry entry) {
+        if (!entry.hasPending) return;
+        entry.hasPending = false;
+        Rectangle p = entry.pending;
+        // setLocation 内部仍会调用 setBounds；只移动时不重建窗口形状，靠的是悬浮框 setBounds 里的尺寸判断
+        if (p.width == window.getWidth() && p.height == window.getHeight()) {
+            window.setLocation(p.x, p.y);
+        } else {
+            window.setBounds(p.x, p.y, p.width, p.height);
+        }
+        appliedCount++;
+    }
+
+    private void settle(Entry entry) {
+        Runnable onSettle = entry.onSettle;
+        entry.onSettle = null;
+        if (onSettle != null) onSettle.run();
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    // 取所有显示器中最高的刷新率，未知时按 60Hz
+    private static int frameIntervalMillis() {
+        int refreshRate = 0;
+        try {
+            if (!GraphicsEnvironment.isHeadless()) {
+                for (GraphicsDevice device : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+                    refreshRate = Math.max(refreshRate, device.getDisplayMode().getRefreshRate());
+                }
+            }
+        } catch (Throwable ignore) {
+        }
+        if (refreshRate <= 0) refreshRate = 60;
+        return Math.max(1, 1000 / refreshRate);
+    }
+}
@@ -0,0 +1,582 @@
+package com.print;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: F4 截图遮罩：窗口立即显示，截屏在后台完成后再换上截图，
+ * 用户框选结束后把选区（屏幕坐标）交给 SelectionHandler。按住 Shift 松开鼠标时选区先暂存，可以在同一张截图上
+ * 继续框选，不按 Shift 松开最后一个选区或按回车时所有选区一起交给 SelectionHandler。
+ * 整个应用只保留一个遮罩窗口，启动后预热，关闭时只隐藏不销毁，下次按 F4 直接复用。
+ * 光标旁显示放大镜（OverlayLoupe），框选的上下边可以吸附到编辑器的行边界，按住 Ctrl 时不吸附
+ * @Version: 1.0
+ */
+public class CaptureOverlay implements Disposable {
+    private static final Logger LOG = Logger.getInstance(CaptureOverlay.class);
+    private static final Stroke SELECTION_STROKE = new BasicStroke(2);
+    private static final Color LABEL_BACKGROUND = new Color(0, 0, 0, 180);
+    private static final Color BATCH_BORDER = new Color(0, 160, 0);
+
+    public interface SelectionHandler {
+        /**
+         * @param modifiers 松开鼠标时按住的修饰键（InputEvent.getModifiersEx）
+         */
+        void selected(Rectangle screenRect, int modifiers);
+
+        /**
+         * 批量框选的所有选区，按框选顺序排列
+         *
+         * @param modifiers 每个选区松开鼠标时按住的修饰键
+         */
+        default void selectedAll(List<Rectangle> screenRects, int[] modifiers) {
+            for (int i = 0; i < screenRects.size(); i++) {
+                selected(screenRects.get(i), modifiers[i]);
+            }
+        }
+
+        /**
+         * 框选边的吸附位置（屏幕坐标），默认不吸附
+         */
+        default int snapY(int screenX, int screenY) {
+            return screenY;
+        }
+    }
+
+    // 以下窗口、面板、监听器只创建一次
+    private JWindow window;
+    private OverlayPanel panel;
+    private ScreenCaptureEngine captureEngine;
+    private ScreenCaptureEngine.Listener captureListener;
+    private KeyEventDispatcher dispatcher;
+    private final OverlayLoupe loupe = new OverlayLoupe();
+
+    // 以下为单次截图的状态，每次 show 时重置
+    private SelectionHandler handler;
+    // 按下 F4 的时间，用于统计到第一帧的延迟
+    private long startNanos;
+    // 开始截图时已用的堆，关闭时再取一次
+    private long heapStartBytes;
+    private boolean incrementalRepaint;
+    private boolean loupeEnabled;
+    private OverlayRepaintStats repaintStats;
+    private boolean active;
+
+    public static CaptureOverlay getInstance() {
+        return ServiceManager.getService(CaptureOverlay.class);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 预热：提前创建窗口、本地窗口句柄（peer）和 Robot，第一次按 F4 时不再付出这些开销。需在 EDT 上调用
+     */
+    public void warmUp() throws AWTException {
+        if (window != null) return;
+        captureEngine = new ScreenCaptureEngine(task -> ApplicationManager.getApplication().executeOnPooledThread(task));
+        try {
+            window = new JWindow();
+            panel = new OverlayPanel();
+            window.setAlwaysOnTop(true);
+            // 增加遮罩的透明度，让用户更容易察觉到截图模式已启动
+            window.setBackground(new Color(0, 0, 0, 100)); // 从50增加到100
+            window.setContentPane(panel);
+            window.setFocusable(true);
+            // 只创建 peer，不显示
+            window.addNotify();
+        } catch (RuntimeException ex) {
+            // 半初始化的窗口不能复用，下次重新创建
+            if (window != null) window.dispose();
+            window = null;
+            panel = null;
+            throw ex;
+        }
+
+        captureListener = new ScreenCaptureEngine.Listener() {
+            @Override
+            public void screenCovered(ScreenCaptureEngine.Screen screen) {
+                if (!window.isVisible()) {
+                    // 第一块显示器的像素已抓取，立即显示遮罩（占位状态）
+                    window.setBounds(captureEngine.getCoveredBounds());
+                    window.setVisible(true);
+                    window.toFront();
+                    panel.requestFocusInWindow();
+                } else {
+                    panel.growToCoveredScreens();
+                }
+            }
+
+            @Override
+            public void screenReady(ScreenCaptureEngine.Screen screen) {
+                repaintStats.recordScreenshotReady(System.nanoTime() - startNanos);
+                Rectangle b = screen.getBounds();
+                panel.repaint(b.x - window.getX(), b.y - window.getY(), b.width, b.height);
+            }
+
+            @Override
+            public void captureFailed(Throwable t) {
+                LOG.warn("Screen capture failed", t);
+                close();
+            }
+        };
+
+        // 添加 ESC 键退出功能：全局键盘监听器只在遮罩激活期间注册，组件级别的监听器作为备用
+        dispatcher = e -> {
+            if (e.getID() == KeyEvent.KEY_PRESSED && e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                close();
+                return true; // 消费这个事件
+            }
+            // 回车确认已暂存的批量选区
+            if (e.getID() == KeyEvent.KEY_PRESSED && e.getKeyCode() == KeyEvent.VK_ENTER && panel.hasBatch()) {
+                panel.confirmBatch();
+                return true;
+            }
+            return false; // 不消费这个事件
+        };
+        panel.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                    close();
+                }
+            }
+        });
+        panel.setFocusable(true);
+    }
+
+    /**
+     * 预加载绘制管线：在离屏图上按遮罩的方式画一帧小图（预合成背景、选区边框和尺寸标签），
+     * 提前初始化 Java2D 的绘制循环、显存加速和遮罩字体的字形缓存。需在 EDT 上、warmUp 之后调用
+     */
+    public void preloadRendering() {
+        if (panel == null || active) return;
+        final int size = 64;
+        OverlayBackground background = new OverlayBackground(
+                new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB), size, size);
+        GraphicsConfiguration gc = window.getGraphicsConfiguration();
+        VolatileImage target = gc != null ? gc.createCompatibleVolatileImage(size, size) : null;
+        Graphics2D g = target != null ? target.createGraphics()
+                : new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB).createGraphics();
+        try {
+            background.paint(g, panel, 0, 0, 8, 24, 32, 32);
+            g.setStroke(SELECTION_STROKE);
+            g.setColor(Color.BLUE);
+            g.drawRect(8, 24, 32, 32);
+            g.setFont(panel.getFont());
+            g.setColor(LABEL_BACKGROUND);
+            g.fillRect(8, 4, 48, 16);
+            g.setColor(Color.WHITE);
+            g.drawString("0123456789 x", 10, 16);
+        } finally {
+            g.dispose();
+            background.flush();
+            if (target != null) target.flush();
+        }
+    }
+
+    /**
+     * 开始一次截图。在 EDT 上调用，只重置状态并提交后台截屏，不等待截屏完成
+     */
+    public void show(SelectionHandler handler) throws AWTException {
+        if (active) return;
+        warmUp();
+        this.handler = handler;
+        this.startNanos = System.nanoTime();
+        this.incrementalRepaint = ScreenMoveEditorSettings.current().incrementalOverlayRepaint;
+        this.loupeEnabled = ScreenMoveEditorSettings.current().selectionLoupe;
+        this.repaintStats = new OverlayRepaintStats();
+        this.active = true;
+        panel.reset();
+
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(dispatcher);
+        heapStartBytes = PerformanceMetrics.heapUsedBytes();
+        captureEngine.begin(captureListener);
+        captureEngine.captureUnderCursor();
+    }
+
+    /**
+     * 结束本次截图：隐藏窗口并释放截图，窗口本身留给下次复用
+     */
+    public void close() {
+        if (!active) return;
+        active = false;
+        // 移除事件分发器
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().removeKeyEventDispatcher(dispatcher);
+        window.setVisible(false);
+        long imageBytes = captureEngine.getPeakImageBytes();
+        // 释放截图之前取样，包含本次截图的全部缓冲区
+        long heapEnd = PerformanceMetrics.heapUsedBytes();
+        captureEngine.flush();
+        loupe.reset();
+        long retained = captureEngine.getPooledBytes();
+        PerformanceMetrics.getInstance().recordCaptureMemory(imageBytes, heapStartBytes, heapEnd, retained);
+        panel.reset();
+        handler = null;
+        // 通过 Help > Diagnostic Tools > Debug Log Settings 添加 #com.print 查看
+        if (LOG.isDebugEnabled()) {
+            LOG.debug((incrementalRepaint ? "[incremental] " : "[full] ") + repaintStats
+                    + String.format(", screenshots %.1f MB, heap used %.1f MB -> %.1f MB, retained %.1f MB",
+                    imageBytes / 1048576.0, heapStartBytes / 1048576.0, heapEnd / 1048576.0, retained / 1048576.0));
+        }
+    }
+
+    @Override
+    public void dispose() {
+        close();
+        if (captureEngine != null) captureEngine.dispose();
+        loupe.dispose();
+        if (window != null) {
+            window.dispose();
+            window = null;
+            panel = null;
+        }
+    }
+
+    // 用于绘制截图和选区
+    private class OverlayPanel extends JPanel {
+        Point start = null, end = null;
+        // 上一帧选区（含边框和尺寸标签）占用的区域，增量重绘时需要一并擦除
+        final Rectangle lastDirty = new Rectangle();
+        final Rectangle dirty = new Rectangle();
+        final Rectangle clip = new Rectangle();
+        final char[] sizeChars = new char[32];
+        final Rectangle regionClip = new Rectangle();
+        // Shift 暂存的选区（面板坐标）及各自的修饰键
+        final List<Rectangle> batch = new ArrayList<>();
+        int[] batchModifiers = new int[4];
+        boolean firstFramePainted;
+        // 光标位置（面板坐标），放大镜跟随它绘制
+        final Point cursor = new Point();
+        boolean hasCursor;
+        final Rectangle loupeBounds = new Rectangle();
+
+        void reset() {
+            start = null;
+            end = null;
+            hasCursor = false;
+            lastDirty.setBounds(0, 0, 0, 0);
+            batch.clear();
+            firstFramePainted = false;
+        }
+
+        boolean hasBatch() {
+            return !batch.isEmpty();
+        }
+
+        void addToBatch(Rectangle region, int modifiers) {
+            if (batch.size() == batchModifiers.length) {
+                int[] grown = new int[batchModifiers.length * 2];
+                System.arraycopy(batchModifiers, 0, grown, 0, batchModifiers.length);
+                batchModifiers = grown;
+            }
+            batchModifiers[batch.size()] = modifiers;
+            batch.add(region);
+        }
+
+        // 所有暂存选区换算为屏幕坐标后一起交给调用方
+        void confirmBatch() {
+            List<Rectangle> screenRects = new ArrayList<>(batch.size());
+            Rectangle union = null;
+            for (Rectangle r : batch) {
+                Rectangle screenRect = new Rectangle(window.getX() + r.x, window.getY() + r.y, r.width, r.height);
+                screenRects.add(screenRect);
+                union = union == null ? new Rectangle(screenRect) : union.union(screenRect);
+            }
+            int[] modifiers = new int[screenRects.size()];
+            System.arraycopy(batchModifiers, 0, modifiers, 0, modifiers.length);
+            SelectionHandler selectionHandler = handler;
+            close();
+            if (union == null) return;
+            Object selectionEvent = FlightEvents.beginSelection();
+            selectionHandler.selectedAll(screenRects, modifiers);
+            FlightEvents.endSelection(selectionEvent, union, 0);
+        }
+
+        OverlayPanel() {
+            setOpaque(false);
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    if (!active) return;
+                    start = e.getPoint();
+                    start.y = snapY(e, start.x, start.y);
+                    end = new Point(start);
+                    moveCursor(e.getX(), e.getY());
+                    repaintSelection();
+                }
+
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    if (!active) return;
+                    Rectangle selection = null;
+                    if (start != null && end != null) {
+                        int x = Math.min(start.x, end.x);
+                        int y = Math.min(start.y, end.y);
+                        int w = Math.abs(start.x - end.x);
+                        int h = Math.abs(start.y - end.y);
+                        // 批量模式：按住 Shift 时暂存选区，继续在同一张截图上框选
+                        boolean shift = (e.getModifiersEx() & InputEvent.SHIFT_DOWN_MASK) != 0;
+                        if (shift || !batch.isEmpty()) {
+                            if (w > 0 && h > 0) addToBatch(new Rectangle(x, y, w, h), e.getModifiersEx());
+                            if (shift) {
+                                start = null;
+                                end = null;
+                                repaintSelection();
+                            } else {
+                                confirmBatch();
+                            }
+                            return;
+                        }
+                        // 面板坐标换算为屏幕坐标
+                        selection = new Rectangle(window.getX() + x, window.getY() + y, w, h);
+                    }
+                    // 先收起遮罩再回调，回调出错也不会留下遮罩
+                    SelectionHandler selectionHandler = handler;
+                    close();
+                    if (selection != null) {
+                        // 4. 交给调用方生成悬浮框
+                        Object selectionEvent = FlightEvents.beginSelection();
+                        selectionHandler.selected(selection, e.getModifiersEx());
+                        FlightEvents.endSelection(selectionEvent, selection, e.getModifiersEx());
+                    }
+                }
+            });
+            addMouseMotionListener(new MouseMotionAdapter() {
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    if (!active) return;
+                    Point onScreen = e.getLocationOnScreen();
+                    // 按光标所在显示器是否已截取判断，不看窗口范围：非矩形排列时窗口范围之外也可能有显示器。
+                    // 拖到未截取的显示器上时后台补截，截好后窗口再扩展过去
+                    captureEngine.ensureCaptured(onScreen);
+                    int x = onScreen.x - window.getX();
+                    int y = onScreen.y - window.getY();
+                    end = new Point(x, snapY(e, x, y));
+                    moveCursor(x, y);
+                    repaintSelection();
+                }
+
+                @Override
+                public void mouseMoved(MouseEvent e) {
+                    if (!active || !loupeEnabled) return;
+                    moveCursor(e.getX(), e.getY());
+                    repaintSelection();
+                }
+            });
+        }
+
+        private void moveCursor(int x, int y) {
+            cursor.setLocation(x, y);
+            hasCursor = true;
+        }
+
+        // 选区的上下边吸附到编辑器行边界（面板坐标），按住 Ctrl 时不吸附
+        private int snapY(MouseEvent e, int x, int y) {
+            if (handler == null || (e.getModifiersEx() & InputEvent.CTRL_DOWN_MASK) != 0) return y;
+            return handler.snapY(window.getX() + x, window.getY() + y) - window.getY();
+        }
+
+        // 新截取了显示器后扩大遮罩窗口；窗口原点可能左移/上移，已有选区坐标要随之平移
+        void growToCoveredScreens() {
+            Rectangle oldBounds = window.getBounds();
+            Rectangle newBounds = captureEngine.getCoveredBounds();
+            int dx = oldBounds.x - newBounds.x;
+            int dy = oldBounds.y - newBounds.y;
+            if (start != null) start.translate(dx, dy);
+            if (end != null) end.translate(dx, dy);
+            lastDirty.translate(dx, dy);
+            cursor.translate(dx, dy);
+            for (Rectangle r : batch) r.translate(dx, dy);
+            window.setBounds(newBounds);
+            repaint();
+        }
+
+        // 只重绘旧选区与新选区的并集，避免每次拖动都整屏重绘
+        private void repaintSelection() {
+            if (!incrementalRepaint) {
+                repaint();
+                return;
+            }
+            computeSelectionBounds(dirty);
+            if (computeLoupeBounds(loupeBounds)) {
+                if (dirty.isEmpty()) {
+                    dirty.setBounds(loupeBounds);
+                } else {
+                    dirty.add(loupeBounds);
+                }
+            }
+            if (lastDirty.isEmpty()) {
+                repaint(dirty);
+            } else if (dirty.isEmpty()) {
+                repaint(lastDirty);
+            } else {
+                repaint(lastDirty.union(dirty));
+            }
+            lastDirty.setBounds(dirty);
+        }
+
+        // 选区矩形 + 2px 边框 + 上方尺寸标签
+        private void computeSelectionBounds(Rectangle r) {
+            if (start == null || end == null) {
+                r.setBounds(0, 0, 0, 0);
+                return;
+            }
+            int x = Math.min(start.x, end.x);
+            int y = Math.min(start.y, end.y);
+            int w = Math.abs(start.x - end.x);
+            int h = Math.abs(start.y - end.y);
+            r.setBounds(x - 2, y - 2, w + 4, h + 4);
+
+            FontMetrics fm = getFontMetrics(getFont());
+            int textWidth = fm.charsWidth(sizeChars, 0, formatSize(w, h));
+            int textHeight = fm.getHeight();
+            r.add(x - 1, y - textHeight - 6);
+            r.add(x + textWidth + 11, y - 4);
+        }
+
+        // 放大镜和坐标标签的区域，不显示放大镜时返回 false
+        private boolean computeLoupeBounds(Rectangle r) {
+            if (!loupeEnabled || !hasCursor) return false;
+            loupe.computeBounds(cursor.x, cursor.y, getWidth(), getHeight(), getFontMetrics(getFont()), r);
+            return true;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            long paintStart = System.nanoTime();
+            if (!active) return;
+            Object paintEvent = FlightEvents.beginOverlayPaint();
+            boolean firstFrame = !firstFramePainted;
+            if (firstFrame) {
+                firstFramePainted = true;
+                repaintStats.recordFirstFrame(paintStart - startNanos);
+                PerformanceMetrics.getInstance().firstFrame.record(paintStart - startNanos);
+            }
+            paintOverlay(g);
+            long frameNanos = System.nanoTime() - paintStart;
+            Rectangle frameClip = g.getClipBounds(clip);
+            repaintStats.record(frameClip, getWidth(), getHeight(), frameNanos);
+            PerformanceMetrics.getInstance().overlayFrame.record(frameNanos);
+            FlightEvents.endOverlayPaint(paintEvent, getWidth(), getHeight(), frameClip, firstFrame);
+        }
+
+        private void paintOverlay(Graphics g) {
+            // 如果有选区，则计算选区
+            int x = 0, y = 0, w = 0, h = 0;
+            if (start != null && end != null) {
+                x = Math.min(start.x, end.x);
+                y = Math.min(start.y, end.y);
+                w = Math.abs(start.x - end.x);
+                h = Math.abs(start.y - end.y);
+            }
+
+            // 绘制各显示器预合成的遮罩背景和选区原图（截图未就绪时为占位遮罩）
+            captureEngine.paint(g, this, x, y, w, h);
+            if (!batch.isEmpty()) paintBatch(g);
+            if (start != null && end != null) paintSelection(g, x, y, w, h);
+            paintLoupe(g);
+        }
+
+        private void paintSelection(Graphics g, int x, int y, int w, int h) {
+            // 绘制选区边框
+            Graphics2D g2d = (Graphics2D) g;
+            Stroke oldStroke = g2d.getStroke();
+            g2d.setStroke(SELECTION_STROKE);
+            g2d.setColor(Color.BLUE);
+            g2d.drawRect(x, y, w, h);
+            g2d.setStroke(oldStroke);
+
+            // 绘制选区尺寸提示，复用字符缓冲区避免每帧拼接字符串
+            int len = formatSize(w, h);
+            FontMetrics fm = g2d.getFontMetrics();
+            int textWidth = fm.charsWidth(sizeChars, 0, len);
+            int textHeight = fm.getHeight();
+
+            // 绘制尺寸文本背景
+            g2d.setColor(LABEL_BACKGROUND);
+            g2d.fillRect(x, y - textHeight - 5, textWidth + 10, textHeight);
+
+            // 绘制尺寸文本
+            g2d.setColor(Color.WHITE);
+            g2d.drawChars(sizeChars, 0, len, x + 5, y - 5);
+        }
+
+        // 放大镜画在最上层，只用光标所在显示器已就绪的截图；不在重绘区域内时跳过
+        private void paintLoupe(Graphics g) {
+            if (!computeLoupeBounds(loupeBounds)) return;
+            Rectangle frameClip = g.getClipBounds(clip);
+            if (frameClip != null && !frameClip.intersects(loupeBounds)) return;
+            int screenX = window.getX() + cursor.x;
+            int screenY = window.getY() + cursor.y;
+            ScreenCaptureEngine.Screen screen = captureEngine.screenAt(screenX, screenY);
+            if (screen == null || screen.background == null) return;
+            Rectangle b = screen.getBounds();
+            loupe.paint((Graphics2D) g, screen.background, b.x - window.getX(), b.y - window.getY(),
+                    cursor.x, cursor.y, screenX, screenY, loupeBounds);
+        }
+
+        // 暂存的选区：只在与重绘区域相交的部分再铺一次原图，加边框和序号
+        private void paintBatch(Graphics g) {
+            Rectangle frameClip = g.getClipBounds(clip);
+            Graphics2D g2d = (Graphics2D) g;
+            Stroke oldStroke = g2d.getStroke();
+            FontMetrics fm = g2d.getFontMetrics();
+            for (int i = 0; i < batch.size(); i++) {
+                Rectangle r = batch.get(i);
+                if (frameClip != null && !frameClip.intersects(r)) continue;
+                regionClip.setBounds(r);
+                if (frameClip != null) Rectangle.intersect(regionClip, frameClip, regionClip);
+                g.setClip(regionClip.x, regionClip.y, regionClip.width, regionClip.height);
+                captureEngine.paint(g, this, r.x, r.y, r.width, r.height);
+                if (frameClip != null) {
+                    g.setClip(frameClip.x, frameClip.y, frameClip.width, frameClip.height);
+                } else {
+                    g.setClip(null);
+                }
+
+                g2d.setStroke(SELECTION_STROKE);
+                g2d.setColor(BATCH_BORDER);
+                g2d.drawRect(r.x, r.y, r.width, r.height);
+                int len = appendInt(0, i + 1);
+                int textWidth = fm.charsWidth(sizeChars, 0, len);
+                g2d.setColor(LABEL_BACKGROUND);
+                g2d.fillRect(r.x + 2, r.y + 2, textWidth + 10, fm.getHeight());
+                g2d.setColor(Color.WHITE);
+                g2d.drawChars(sizeChars, 0, len, r.x + 7, r.y + 2 + fm.getAscent());
+            }
+            g2d.setStroke(oldStroke);
+        }
+
+        // 把 "w × h" 写入 sizeChars，返回字符数
+        private int formatSize(int w, int h) {
+            int len = appendInt(0, w);
+            sizeChars[len++] = ' ';
+            sizeChars[len++] = '×';
+            sizeChars[len++] = ' ';
+            return appendInt(len, h);
+        }
+
+        private int appendInt(int pos, int value) {
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10) digits++;
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                sizeChars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return pos + digits;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.print;
+
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 可暂停的 BorderLayout：缩放悬浮框的过程中暂停编辑器重新布局，
+ * 手势停顿或结束后再补一次布局
+ * @Version: 1.0
+ */
+public class DeferredLayout extends BorderLayout {
+    private static final long serialVersionUID = 1L;
+
+    private boolean deferred;
+    private boolean layoutSkipped;
+
+    public void setDeferred(Container target, boolean deferred) {
+        if (this.deferred == deferred) return;
+        this.deferred = deferred;
+        if (!deferred && layoutSkipped) {
+            layoutSkipped = false;
+            target.revalidate();
+            target.repaint();
+        }
+    }
+
+    @Override
+    public void layoutContainer(Container target) {
+        if (deferred) {
+            layoutSkipped = true;
+            return;
+        }
+        super.layoutContainer(target);
+    }
+}
@@ -0,0 +1,73 @@
+package com.print;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 编辑器字体按字号和样式缓存：字体对象和字体度量按字号存放在数组里，查找不分配对象；
+ * 编辑器字体族变化（切换配色方案或字体设置）时整体清空。只在 EDT 上访问
+ * @Version: 1.0
+ */
+public final class EditorFontCache {
+    public static final int MIN_SIZE = 8;
+    public static final int MAX_SIZE = 72;
+
+    // 下标为 Font.PLAIN / BOLD / ITALIC / BOLD|ITALIC
+    private static final Font[][] fonts = new Font[4][MAX_SIZE + 1];
+    private static final FontMetrics[][] metrics = new FontMetrics[4][MAX_SIZE + 1];
+    // 只用来取字体度量，不参与显示
+    private static final JComponent measurer = new JLabel();
+    private static String family;
+
+    private EditorFontCache() {
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(MIN_SIZE, Math.min(MAX_SIZE, size));
+    }
+
+    public static Font font(String fontFamily, int size) {
+        return font(fontFamily, Font.PLAIN, size);
+    }
+
+    public static Font font(String fontFamily, int style, int size) {
+        check(fontFamily);
+        style &= Font.BOLD | Font.ITALIC;
+        size = clampSize(size);
+        Font font = fonts[style][size];
+        if (font == null) {
+            font = new Font(fontFamily, style, size);
+            fonts[style][size] = font;
+        }
+        return font;
+    }
+
+    public static FontMetrics metrics(String fontFamily, int size) {
+        return metrics(fontFamily, Font.PLAIN, size);
+    }
+
+    public static FontMetrics metrics(String fontFamily, int style, int size) {
+        Font font = font(fontFamily, style, size);
+        style &= Font.BOLD | Font.ITALIC;
+        size = clampSize(size);
+        FontMetrics fm = metrics[style][size];
+        if (fm == null) {
+            fm = measurer.getFontMetrics(font);
+            metrics[style][size] = fm;
+        }
+        return fm;
+    }
+
+    private static void check(String fontFamily) {
+        if (fontFamily.equals(family)) return;
+        family = fontFamily;
+        for (int style = 0; style < 4; style++) {
+            for (int i = 0; i <= MAX_SIZE; i++) {
+                fonts[style][i] = null;
+                metrics[style][i] = null;
+            }
+        }
+    }
+}
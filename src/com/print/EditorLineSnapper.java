@@ -0,0 +1,57 @@
+package com.print;
+
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.VisualPosition;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 把框选的上下边吸附到当前编辑器的行边界上。编辑器在屏幕上的位置和可见区域在按 F4 时记录，
+ * 截图期间编辑器不会滚动；光标不在编辑器可见区域内时不吸附
+ * @Version: 1.0
+ */
+final class EditorLineSnapper {
+    private final Editor editor;
+    // 内容组件左上角和可见区域的屏幕坐标
+    private final Point origin;
+    private final Rectangle visibleOnScreen;
+
+    private EditorLineSnapper(Editor editor, Point origin, Rectangle visibleOnScreen) {
+        this.editor = editor;
+        this.origin = origin;
+        this.visibleOnScreen = visibleOnScreen;
+    }
+
+    /**
+     * 当前项目选中的编辑器不可见时返回 null
+     */
+    static EditorLineSnapper create(Project project) {
+        Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        if (editor == null || editor.isDisposed()) return null;
+        JComponent content = editor.getContentComponent();
+        if (!content.isShowing()) return null;
+        Point origin = content.getLocationOnScreen();
+        Rectangle visible = new Rectangle(editor.getScrollingModel().getVisibleArea());
+        visible.translate(origin.x, origin.y);
+        return new EditorLineSnapper(editor, origin, visible);
+    }
+
+    /**
+     * 返回离 screenY 最近的行边界（屏幕坐标）
+     */
+    int snapY(int screenX, int screenY) {
+        if (!visibleOnScreen.contains(screenX, screenY)) return screenY;
+        int y = screenY - origin.y;
+        int line = editor.xyToVisualPosition(new Point(0, y)).line;
+        int top = editor.visualPositionToXY(new VisualPosition(line, 0)).y;
+        int bottom = editor.visualPositionToXY(new VisualPosition(line + 1, 0)).y;
+        // 最后一行之后没有下一行，按行高推算
+        if (bottom <= top) bottom = top + editor.getLineHeight();
+        return origin.y + (y - top <= bottom - y ? top : bottom);
+    }
+}
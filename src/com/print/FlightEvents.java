@@ -0,0 +1,81 @@
+package com.print;
+
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: JFR 事件入口：截屏、遮罩绘制、选区完成、悬浮框编辑器创建、拖拽/缩放手势。
+ * 这个类不引用 jdk.jfr，运行时没有 JFR（JDK 8 或被裁剪的运行时）时所有方法都是空操作；
+ * begin 返回 null 表示本次不记录，调用方原样传给 end 即可
+ * @Version: 1.0
+ */
+public final class FlightEvents {
+    private static final boolean AVAILABLE = detect();
+
+    private FlightEvents() {
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightEvents.class.getClassLoader());
+            return JfrEvents.isAvailable();
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    public static Object beginScreenCapture() {
+        return AVAILABLE ? JfrEvents.beginScreenCapture() : null;
+    }
+
+    public static void endScreenCapture(Object event, Rectangle bounds, int pixelWidth, int pixelHeight) {
+        if (event != null) JfrEvents.endScreenCapture(event, bounds, pixelWidth, pixelHeight);
+    }
+
+    public static Object beginOverlayPaint() {
+        return AVAILABLE ? JfrEvents.beginOverlayPaint() : null;
+    }
+
+    /**
+     * @param clip 本帧重绘区域，null 表示整个遮罩
+     */
+    public static void endOverlayPaint(Object event, int width, int height, Rectangle clip, boolean firstFrame) {
+        if (event != null) JfrEvents.endOverlayPaint(event, width, height, clip, firstFrame);
+    }
+
+    public static Object beginSelection() {
+        return AVAILABLE ? JfrEvents.beginSelection() : null;
+    }
+
+    public static void endSelection(Object event, Rectangle selection, int modifiers) {
+        if (event != null) JfrEvents.endSelection(event, selection, modifiers);
+    }
+
+    public static Object beginEditorCreate() {
+        return AVAILABLE ? JfrEvents.beginEditorCreate() : null;
+    }
+
+    public static void endEditorCreate(Object event, int panelId, String file, boolean reference,
+                                       boolean rangeLimited, long documentLength) {
+        if (event != null) {
+            JfrEvents.endEditorCreate(event, panelId, file, reference, rangeLimited, documentLength);
+        }
+    }
+
+    public static Object beginPanelGesture() {
+        return AVAILABLE ? JfrEvents.beginPanelGesture() : null;
+    }
+
+    /**
+     * @param mouseEvents     手势期间的鼠标拖动事件数
+     * @param coalescedEvents 交给 BoundsCoalescer 的边界请求数（整组拖动时每个成员各一次）
+     * @param appliedUpdates  实际执行的 setBounds/setLocation 次数
+     */
+    public static void endPanelGesture(Object event, int panelId, boolean resize, int panels, int mouseEvents,
+                                       long coalescedEvents, long appliedUpdates) {
+        if (event != null) {
+            JfrEvents.endPanelGesture(event, panelId, resize, panels, mouseEvents, coalescedEvents, appliedUpdates);
+        }
+    }
+}
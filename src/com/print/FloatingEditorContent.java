@@ -0,0 +1,391 @@
+package com.print;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.LogicalPosition;
+import com.intellij.openapi.editor.ScrollType;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.colors.EditorColorsScheme;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框里的编辑器部分：按 FloatingPanelState 创建编辑器，休眠时释放编辑器并把光标、滚动、字号写回状态，
+ * 换上只按需绘制几行文字的占位视图；占位视图被悬停、点击或滚动时请求唤醒。
+ * 恢复布局时也先显示占位视图，文档和编辑器都等到第一次使用时再加载。
+ * 参考模式下不创建编辑器，只用 ReferenceView 绘制选中的几行，双击后换成编辑器。只在 EDT 上访问
+ * @Version: 1.0
+ */
+public class FloatingEditorContent {
+    // 悬浮框编号，用于统计和 JFR 事件
+    private static int nextId;
+
+    private final int id = ++nextId;
+    private final Project project;
+    private final JPanel host;
+    private final FloatingPanelState state;
+    private final HibernatedView placeholder = new HibernatedView();
+    // 框选时已有文档对象，恢复布局时按 fileUrl 查找
+    private Document document;
+    private Editor editor;
+    private RangeLimitedDocument rangeDocument;
+    private PanelZoom zoom;
+    // 参考模式的只读视图及其滚动面板
+    private ReferenceView referenceView;
+    private JScrollPane referenceScroll;
+    private Runnable wakeRequest;
+
+    public FloatingEditorContent(Project project, JPanel host, FloatingPanelState state, Document document) {
+        this.project = project;
+        this.host = host;
+        this.state = state;
+        this.document = document;
+    }
+
+    /**
+     * 当前状态；保存设置可能发生在后台线程，此时不访问编辑器，返回上一次记下的状态
+     */
+    public FloatingPanelState getState() {
+        if (isLive() && SwingUtilities.isEventDispatchThread()) snapshot();
+        return state;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Editor getEditor() {
+        return editor;
+    }
+
+    /**
+     * 是否已创建编辑器或参考视图（未休眠）
+     */
+    public boolean isLive() {
+        return editor != null || referenceView != null;
+    }
+
+    /**
+     * 大致占用的内存（字节）：编辑器按文档文字和每行的排版开销估算，休眠时为 0
+     */
+    public long estimateRetainedBytes() {
+        if (referenceView != null) return referenceView.estimateRetainedBytes();
+        if (editor == null) return 0;
+        Document shown = editor.getDocument();
+        return shown.getTextLength() * 2L + shown.getLineCount() * 64L;
+    }
+
+    /**
+     * 按选区决定编辑器加载的行：大文件只加载选区和上下边距，小文件加载完整文件
+     */
+    public static void chooseEditorRange(FloatingPanelState state, int documentLines, int startLine, int endLine) {
+        ScreenMoveEditorSettings.State settings = ScreenMoveEditorSettings.current();
+        if (settings.rangeLimitedPanels && state.fileUrl != null && documentLines >= settings.rangeLimitedMinLines) {
+            state.firstLine = Math.max(0, startLine - settings.rangeMarginLines);
+            state.lastLine = endLine + settings.rangeMarginLines;
+        } else {
+            state.firstLine = -1;
+            state.lastLine = -1;
+        }
+    }
+
+    /**
+     * 占位视图被使用时的回调，由管理器设置
+     */
+    public void setWakeRequest(Runnable wakeRequest) {
+        this.wakeRequest = wakeRequest;
+    }
+
+    /**
+     * 创建编辑器（参考模式下为只读视图）并放进宿主面板；文件已不存在时返回 false
+     */
+    public boolean create() {
+        if (isLive()) return true;
+        long startNanos = System.nanoTime();
+        VirtualFile file = resolveFile();
+        // 文件不存在时直接返回，不开始 JFR 事件，否则事件永远不会结束
+        if (document == null) return false;
+        Object createEvent = FlightEvents.beginEditorCreate();
+        if (state.reference && file != null) {
+            createReference(file);
+            recordCreate(startNanos, createEvent, file);
+            return true;
+        }
+
+        // 大文件只把选区附近的行放进片段文档，编辑器不必为整个文件排版；片段与原文档实时同步。
+        // 开启节流时完整编辑器也改用覆盖整个文件的片段文档，没有焦点时主编辑器的输入按节拍同步过来，不再每次按键都排版
+        int baseLine = 0;
+        ScreenMoveEditorSettings.State settings = ScreenMoveEditorSettings.current();
+        if (file != null && (state.isRangeLimited() || settings.unfocusedPanelRefreshRate > 0)) {
+            rangeDocument = state.isRangeLimited()
+                    ? new RangeLimitedDocument(document, state.firstLine, state.lastLine, settings.rangeMarginLines)
+                    : RangeLimitedDocument.wholeDocument(document);
+            editor = EditorFactory.getInstance().createEditor(rangeDocument.getFragment(), project);
+            rangeDocument.attach(editor);
+            baseLine = rangeDocument.getStartLine();
+        } else {
+            editor = EditorFactory.getInstance().createEditor(document, project);
+        }
+        // 编辑器不带文件创建，免得先做一遍整文件词法分析；创建后再关联文件，缩进等代码风格和按编辑器查文件的功能照常可用
+        if (file != null && editor instanceof EditorEx) ((EditorEx) editor).setFile(file);
+        // 语法高亮复用主编辑器的词法结果，多个悬浮框不再各自分析整个文件
+        SharedHighlighters.install(editor, project, file, document, rangeDocument);
+        if (state.fontSize > 0) PanelZoom.applyFontSize(editor, state.fontSize);
+        installZoom(editor);
+
+        host.remove(placeholder);
+        host.add(editor.getComponent(), BorderLayout.CENTER);
+        host.revalidate();
+        host.repaint();
+
+        int base = rangeDocument != null ? rangeDocument.getStartOffset() : 0;
+        if (state.caretOffset >= 0) {
+            int local = state.caretOffset - base;
+            editor.getCaretModel().moveToOffset(Math.max(0, Math.min(local, editor.getDocument().getTextLength())));
+        }
+        // 滚动需要编辑器已经布局，窗口还没显示时放到下一轮事件
+        final Editor created = editor;
+        final int anchor = Math.max(0, state.anchorLine - baseLine);
+        Runnable restoreScroll = () -> {
+            if (created.isDisposed()) return;
+            if (state.scrollOffset >= 0) {
+                created.getScrollingModel().scrollVertically(state.scrollOffset);
+            } else {
+                // 自动滚动到你框选的那一行
+                created.getScrollingModel().scrollTo(new LogicalPosition(anchor, 0), ScrollType.CENTER);
+            }
+        };
+        if (host.isShowing()) {
+            host.validate();
+            restoreScroll.run();
+        } else {
+            SwingUtilities.invokeLater(restoreScroll);
+        }
+        recordCreate(startNanos, createEvent, file);
+        return true;
+    }
+
+    private void recordCreate(long startNanos, Object createEvent, VirtualFile file) {
+        PerformanceMetrics.getInstance().editorCreate.record(System.nanoTime() - startNanos);
+        FlightEvents.endEditorCreate(createEvent, id, file != null ? file.getName() : null, state.reference,
+                state.isRangeLimited(), document.getTextLength());
+    }
+
+    private void createReference(VirtualFile file) {
+        referenceView = new ReferenceView(project, file, document, state.firstLine, state.lastLine,
+                state.fontSize, this::promote);
+        referenceScroll = new JScrollPane(referenceView);
+        referenceScroll.setBorder(BorderFactory.createEmptyBorder());
+        referenceScroll.getVerticalScrollBar().setUnitIncrement(referenceView.getLineHeight());
+        host.remove(placeholder);
+        host.add(referenceScroll, BorderLayout.CENTER);
+        host.revalidate();
+        host.repaint();
+        if (state.scrollOffset > 0) {
+            final ReferenceView created = referenceView;
+            SwingUtilities.invokeLater(() -> {
+                if (referenceView == created) created.scrollRectToVisible(
+                        new Rectangle(0, state.scrollOffset, 1, referenceScroll.getViewport().getHeight()));
+            });
+        }
+    }
+
+    /**
+     * 参考视图双击：换成真正的编辑器，居中显示原来的第一行
+     */
+    private void promote() {
+        if (referenceView == null) return;
+        int first = referenceView.getStartLine();
+        int last = referenceView.getEndLine();
+        releaseEditor();
+        state.reference = false;
+        state.anchorLine = first;
+        state.caretOffset = -1;
+        state.scrollOffset = -1;
+        chooseEditorRange(state, document.getLineCount(), first, last);
+        create();
+    }
+
+    /**
+     * 恢复布局时先放占位视图，不加载文档也不创建编辑器
+     */
+    public void showPlaceholder() {
+        if (isLive()) return;
+        host.add(placeholder, BorderLayout.CENTER);
+        host.revalidate();
+        host.repaint();
+    }
+
+    /**
+     * 休眠：记下状态后释放编辑器，换上占位视图
+     */
+    public void hibernate() {
+        if (!isLive()) return;
+        snapshot();
+        releaseEditor();
+        host.add(placeholder, BorderLayout.CENTER);
+        host.revalidate();
+        host.repaint();
+    }
+
+    /**
+     * 悬浮框关闭时释放全部资源
+     */
+    public void dispose() {
+        releaseEditor();
+        host.remove(placeholder);
+    }
+
+    private VirtualFile resolveFile() {
+        VirtualFile file = document != null ? FileDocumentManager.getInstance().getFile(document) : null;
+        if (file == null && state.fileUrl != null) {
+            file = VirtualFileManager.getInstance().findFileByUrl(state.fileUrl);
+            if (file != null && file.isValid()) document = FileDocumentManager.getInstance().getDocument(file);
+        }
+        return file;
+    }
+
+    private void snapshot() {
+        if (referenceView != null) {
+            state.firstLine = referenceView.getStartLine();
+            state.lastLine = referenceView.getEndLine();
+            state.scrollOffset = referenceScroll.getViewport().getViewPosition().y;
+            state.topLine = state.firstLine + state.scrollOffset / referenceView.getLineHeight();
+            return;
+        }
+        int base = rangeDocument != null ? rangeDocument.getStartOffset() : 0;
+        int baseLine = rangeDocument != null ? rangeDocument.getStartLine() : 0;
+        state.fontSize = editor.getColorsScheme().getEditorFontSize();
+        state.caretOffset = base + editor.getCaretModel().getOffset();
+        state.scrollOffset = editor.getScrollingModel().getVerticalScrollOffset();
+        state.topLine = baseLine + editor.xyToLogicalPosition(new Point(0, state.scrollOffset)).line;
+        // 覆盖整个文件的片段不记录行范围，下次仍按完整编辑器打开
+        if (state.isRangeLimited() && rangeDocument != null) {
+            state.firstLine = rangeDocument.getStartLine();
+            state.lastLine = rangeDocument.getEndLine();
+        }
+    }
+
+    private void releaseEditor() {
+        if (referenceView != null) {
+            host.remove(referenceScroll);
+            referenceView.dispose();
+            referenceView = null;
+            referenceScroll = null;
+        }
+        if (editor == null) return;
+        host.remove(editor.getComponent());
+        if (zoom != null) {
+            zoom.dispose();
+            zoom = null;
+        }
+        try {
+            SharedHighlighters.uninstall(editor);
+            EditorFactory.getInstance().releaseEditor(editor);
+        } finally {
+            editor = null;
+            if (rangeDocument != null) Disposer.dispose(rangeDocument);
+            rangeDocument = null;
+        }
+    }
+
+    // Ctrl + 滚轮缩放字体：手势过程中只显示缩放预览，停下后提交一次字号
+    private void installZoom(Editor editor) {
+        zoom = new PanelZoom(editor);
+        JScrollPane scrollPane = findScrollPane(editor.getComponent());
+        if (scrollPane != null) scrollPane.addMouseWheelListener(zoom::mouseWheelMoved);
+    }
+
+    private static JScrollPane findScrollPane(Component comp) {
+        if (comp == null) return null;
+        if (comp instanceof JScrollPane) return (JScrollPane) comp;
+        if (comp instanceof Container) {
+            for (Component child : ((Container) comp).getComponents()) {
+                JScrollPane pane = findScrollPane(child);
+                if (pane != null) return pane;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 休眠占位视图：不持有编辑器和缓冲图，每次重绘直接从文档读取可见的几行文字
+     */
+    private class HibernatedView extends JComponent {
+        private static final int PADDING = 6;
+        private final char[] lineChars = new char[256];
+        // 文档尚未加载时显示的提示：文件名和行号
+        private String hint;
+
+        HibernatedView() {
+            MouseAdapter wake = new MouseAdapter() {
+                @Override
+                public void mouseEntered(MouseEvent e) {
+                    requestWake();
+                }
+
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    requestWake();
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    requestWake();
+                }
+            };
+            addMouseListener(wake);
+            addMouseWheelListener(wake);
+        }
+
+        private void requestWake() {
+            if (wakeRequest != null) wakeRequest.run();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            EditorColorsScheme scheme = EditorColorsManager.getInstance().getGlobalScheme();
+            g.setColor(scheme.getDefaultBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            int size = state.fontSize > 0 ? state.fontSize : scheme.getEditorFontSize();
+            g.setFont(EditorFontCache.font(scheme.getEditorFontName(), size));
+            g.setColor(scheme.getDefaultForeground());
+            FontMetrics fm = EditorFontCache.metrics(scheme.getEditorFontName(), size);
+            if (document == null) {
+                if (hint == null) {
+                    String url = state.fileUrl != null ? state.fileUrl : "";
+                    hint = url.substring(url.lastIndexOf('/') + 1) + ":" + (state.anchorLine + 1);
+                }
+                g.drawString(hint, PADDING, PADDING + fm.getAscent());
+                return;
+            }
+            int lineHeight = fm.getHeight();
+            CharSequence text = document.getCharsSequence();
+            int lineCount = document.getLineCount();
+            int y = PADDING + fm.getAscent();
+            for (int line = Math.max(0, state.topLine); line < lineCount && y - fm.getAscent() < getHeight(); line++) {
+                int start = document.getLineStartOffset(line);
+                int len = Math.min(lineChars.length, document.getLineEndOffset(line) - start);
+                for (int i = 0; i < len; i++) {
+                    char c = text.charAt(start + i);
+                    lineChars[i] = c == '\t' ? ' ' : c;
+                }
+                g.drawChars(lineChars, 0, len, PADDING, y);
+                y += lineHeight;
+            }
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.print;
+
+import com.intellij.openapi.editor.*;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.WindowManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框的创建：选区换算为行号、窗口外观、标题栏和拖拽/缩放。
+ * 从 ScreenCaptureAction 中拆出，IDE 启动时只加载很小的 Action 类，这些类在第一次框选或空闲预加载时才加载
+ * @Version: 1.0
+ */
+final class FloatingPanelFactory {
+    private FloatingPanelFactory() {
+    }
+
+    // 生成可编辑代码的悬浮框
+    static void createCodeEditorPanel(Project project, Rectangle screenRect, boolean reference) {
+        long startNanos = System.nanoTime();
+        Editor currentEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        if (currentEditor == null) return;
+        Document document = currentEditor.getDocument();
+
+        // 获取当前文件名
+        VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+        String fileName = file != null ? file.getName() : ScreenMoveEditorBundle.message("unnamed.file");
+
+        FloatingPanelState state = resolvePanelState(currentEditor, file, screenRect, reference);
+        openFloatingPanel(project, fileName, state, document, false);
+        PerformanceMetrics.getInstance().panelOpen.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 批量框选：先按截图时的编辑器布局换算出所有选区的行号，再一次性打开所有悬浮框（只显示占位视图），
+     * 编辑器按每轮事件一个的节奏依次创建，界面不会因为一次创建多个编辑器而卡住
+     */
+    static void createCodeEditorPanels(Project project, List<Rectangle> screenRects, int[] modifiers) {
+        Editor currentEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        if (currentEditor == null) return;
+        Document document = currentEditor.getDocument();
+        VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+        String fileName = file != null ? file.getName() : ScreenMoveEditorBundle.message("unnamed.file");
+
+        // 第一个悬浮框出现后主编辑器可能失去焦点或重新布局，所以行号必须在打开任何悬浮框之前算好
+        List<FloatingPanelState> states = new ArrayList<>(screenRects.size());
+        for (int i = 0; i < screenRects.size(); i++) {
+            boolean reference = (modifiers[i] & InputEvent.ALT_DOWN_MASK) != 0;
+            states.add(resolvePanelState(currentEditor, file, screenRects.get(i), reference));
+        }
+
+        List<FloatingPanelManager.Panel> opened = new ArrayList<>(states.size());
+        for (FloatingPanelState state : states) {
+            long startNanos = System.nanoTime();
+            opened.add(openFloatingPanel(project, fileName, state, document, true));
+            PerformanceMetrics.getInstance().panelOpen.record(System.nanoTime() - startNanos);
+        }
+        FloatingPanelManager.getInstance(project).wakeStaggered(opened);
+    }
+
+    // 把选区（屏幕坐标）换算为主编辑器中的行，生成悬浮框的状态记录
+    private static FloatingPanelState resolvePanelState(Editor currentEditor, VirtualFile file, Rectangle screenRect,
+                                                        boolean reference) {
+        Document document = currentEditor.getDocument();
+        int screenX = screenRect.x;
+        int screenY = screenRect.y;
+        int width = screenRect.width;
+        int height = screenRect.height;
+
+        // 计算选区起点和终点对应的逻辑行
+        Point editorLocation = currentEditor.getContentComponent().getLocationOnScreen();
+        int relX = screenX - editorLocation.x;
+        int relY = screenY - editorLocation.y;
+        VisualPosition visualPos = currentEditor.xyToVisualPosition(new Point(relX, relY));
+        LogicalPosition logicalPos = currentEditor.visualToLogicalPosition(visualPos);
+        // 下边取选区内最后一行像素，选区下边正好落在行边界（吸附）时不会多带上下一行
+        LogicalPosition endPos = currentEditor.visualToLogicalPosition(
+                currentEditor.xyToVisualPosition(new Point(relX + width, relY + Math.max(0, height - 1))));
+
+        // 悬浮框的最小状态：休眠后据此重建编辑器，也用于下次打开项目时恢复布局
+        FloatingPanelState state = new FloatingPanelState();
+        state.fileUrl = file != null ? file.getUrl() : null;
+        state.anchorLine = logicalPos.line;
+        if (reference && file != null) {
+            // 只读参考框只绘制选中的行
+            state.reference = true;
+            state.firstLine = logicalPos.line;
+            state.lastLine = endPos.line;
+        } else {
+            // 大文件只把选区附近的行放进片段文档，编辑器不必为整个文件排版
+            FloatingEditorContent.chooseEditorRange(state, document.getLineCount(), logicalPos.line, endPos.line);
+        }
+        state.x = screenX;
+        state.y = screenY;
+        state.width = Math.max(width, 300);
+        state.height = Math.max(height, 200);
+        return state;
+    }
+
+    /**
+     * 按状态生成悬浮框
+     *
+     * @param document 已知的文档，恢复布局时传 null，创建编辑器时再按 fileUrl 加载
+     * @param lazy     先显示占位视图，第一次悬停、聚焦或滚动时才创建编辑器
+     */
+    static FloatingPanelManager.Panel openFloatingPanel(Project project, String fileName, FloatingPanelState state,
+                                  Document document, boolean lazy) {
+        Window owner = WindowManager.getInstance().getFrame(project);
+        // 不支持不规则窗口或用户关闭了圆角时使用矩形窗口
+        final boolean[] rounded = {ScreenMoveEditorSettings.current().roundedPanelWindows};
+        // 分组状态，选中时标题栏高亮
+        final FloatingPanelGroup.Member[] groupMember = new FloatingPanelGroup.Member[1];
+        JDialog floatingDialog = new JDialog(owner) {
+            @Override
+            protected JRootPane createRootPane() {
+                JRootPane rootPane = new JRootPane() {
+                    @Override
+                    protected void paintComponent(Graphics g) {
+                        // 绘制圆角背景和圆角边框（缓存贴图）
+                        PanelChromeCache.paintRootBackground(g, getWidth(), getHeight(), rounded[0]);
+                    }
+                };
+                rootPane.setOpaque(false);
+                return rootPane;
+            }
+            
+            @Override
+            public void setBounds(int x, int y, int width, int height) {
+                boolean resized = width != getWidth() || height != getHeight();
+                super.setBounds(x, y, width, height);
+                // 只移动时形状不变，不重建本地窗口区域
+                if (!resized) return;
+                // 设置圆角形状，同尺寸复用同一个形状对象
+                if (rounded[0]) {
+                    setShape(PanelChromeCache.windowShape(width, height));
+                }
+                repaint();
+            }
+        };
+        floatingDialog.setUndecorated(true);
+        if (rounded[0] && !PanelChromeCache.isShapingSupported(floatingDialog)) {
+            rounded[0] = false;
+        }
+        floatingDialog.setBounds(state.x, state.y, state.width, state.height);
+        // 不要默认置顶，避免压住 IDEA 的对话框/搜索窗
+        floatingDialog.setAlwaysOnTop(false);
+        // 让窗口更像工具窗，不打断主窗口的输入焦点
+        try { floatingDialog.setType(Window.Type.UTILITY); } catch (Throwable ignore) { }
+        floatingDialog.setModalExclusionType(Dialog.ModalExclusionType.APPLICATION_EXCLUDE);
+        floatingDialog.setAutoRequestFocus(false);
+        floatingDialog.setLayout(new BorderLayout());
+
+        // 创建圆角标题栏
+        JPanel titleBar = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                // 绘制圆角背景，顶部圆角，底部与内容区域无缝连接；分组选中时高亮
+                boolean selected = groupMember[0] != null && groupMember[0].isSelected();
+                PanelChromeCache.paintTitleBar(g, getWidth(), getHeight(), rounded[0], selected);
+            }
+        };
+        titleBar.setPreferredSize(new Dimension(0, 25));
+        titleBar.setLayout(new BorderLayout());
+        
+        // 标题标签，添加左边距
+        JLabel titleLabel = new JLabel(fileName);
+        titleLabel.setForeground(Color.WHITE);
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 0));
+        titleBar.add(titleLabel, BorderLayout.WEST);
+        // 创建现代化的关闭按钮
+        JButton closeButton = new JButton() {
+            private boolean isHovered = false;
+            
+            @Override
+            protected void paintComponent(Graphics g) {
+                Graphics2D g2d = (Graphics2D) g.create();
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                
+                int width = getWidth();
+                int height = getHeight();
+                
+                // 绘制背景
+                if (getModel().isPressed()) {
+                    // 按下状态 - 深红色，圆形背景稍大
+                    g2d.setColor(new Color(180, 40, 40));
+                    g2d.fillOval(0, 0, width, height);
+                } else if (isHovered) {
+                    // 悬停状态 - 红色，圆形背景更大
+                    g2d.setColor(new Color(220, 50, 50));
+                    g2d.fillOval(-1, -1, width + 2, height + 2);
+                } else {
+                    // 正常状态 - 半透明灰色，正常尺寸
+                    g2d.setColor(new Color(80, 80, 80, 100));
+                    g2d.fillOval(2, 2, width - 4, height - 4);
+                }
+                
+                // 绘制关闭图标 "×"
+                g2d.setColor(Color.WHITE);
+                g2d.setStroke(new BasicStroke(2.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                
+                int centerX = width / 2;
+                int centerY = height / 2;
+                int size = Math.min(width, height) / 4;
+                
+                // 绘制两条交叉的线
+                g2d.drawLine(centerX - size, centerY - size, centerX + size, centerY + size);
+                g2d.drawLine(centerX + size, centerY - size, centerX - size, centerY + size);
+                
+                g2d.dispose();
+            }
+            
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(18, 18); // 恢复原来的按钮尺寸
+            }
+            
+            // 添加鼠标监听器来检测悬停状态
+            {
+                addMouseListener(new MouseAdapter() {
+                    @Override
+                    public void mouseEntered(MouseEvent e) {
+                        isHovered = true;
+                        repaint();
+                    }
+                    
+                    @Override
+                    public void mouseExited(MouseEvent e) {
+                        isHovered = false;
+                        repaint();
+                    }
+                });
+            }
+        };
+        
+        closeButton.setPreferredSize(new Dimension(18, 18));
+        closeButton.setBorder(null);
+        closeButton.setContentAreaFilled(false);
+        closeButton.setFocusPainted(false);
+        closeButton.setOpaque(false);
+
+        // 创建关闭按钮容器，添加右边距和上边距
+        JPanel closeButtonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        closeButtonPanel.setOpaque(false);
+        closeButtonPanel.setBorder(BorderFactory.createEmptyBorder(4, 0, 4, 8));
+        closeButtonPanel.add(closeButton);
+
+        // 保持简单的层级策略：浮动框不置顶，由系统正常管理层级
+
+        // 悬浮框统一由项目级管理器关闭：关闭按钮、数量上限淘汰、项目关闭都走同一个释放流程
+        FloatingPanelManager panelManager = FloatingPanelManager.getInstance(project);
+        final FloatingPanelManager.Panel[] managedPanel = new FloatingPanelManager.Panel[1];
+        closeButton.addActionListener(e -> panelManager.close(managedPanel[0]));
+
+        titleBar.add(closeButtonPanel, BorderLayout.EAST);
+
+        // 创建圆角内容面板
+        JPanel contentPanel = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                // 绘制圆角背景，底部圆角
+                PanelChromeCache.paintContentBackground(g, getWidth(), getHeight(), getBackground(), rounded[0]);
+            }
+        };
+        // 缩放过程中暂停编辑器布局，手势停顿或结束后再布局
+        DeferredLayout contentLayout = new DeferredLayout();
+        contentPanel.setLayout(contentLayout);
+        contentPanel.setOpaque(false);
+        FloatingEditorContent content = new FloatingEditorContent(project, contentPanel, state, document);
+        if (lazy) {
+            content.showPlaceholder();
+        } else {
+            content.create();
+        }
+        
+        floatingDialog.add(titleBar, BorderLayout.NORTH);
+        floatingDialog.add(contentPanel, BorderLayout.CENTER);
+
+        // 添加拖拽和缩放功能
+        groupMember[0] = FloatingPanelGroup.register(content.getId(), floatingDialog, contentPanel, contentLayout);
+        addDragAndResizeFunctionality(floatingDialog, titleBar, closeButton, groupMember[0]);
+        managedPanel[0] = panelManager.register(floatingDialog, content, () -> {
+            FloatingPanelGroup.unregister(groupMember[0]);
+            floatingDialog.dispose();
+        });
+
+        floatingDialog.setVisible(true);
+        return managedPanel[0];
+    }
+
+    private static void addDragAndResizeFunctionality(JDialog frame, JPanel titleBar, JButton closeButton,
+                                                      FloatingPanelGroup.Member groupMember) {
+        final int BORDER_THICKNESS = 8;
+        final int TITLE_HEIGHT = 25;
+        final int CLOSE_BUTTON_WIDTH = 25;
+
+        // 拖拽起点用屏幕坐标：窗口边界按帧合并更新，窗口相对坐标会滞后
+        final Point[] dragStart = new Point[1];
+        final int[] dragRegion = {PanelHitRegions.NONE};
+        // 当前光标对应的区域，区域不变时不重复 setCursor
+        final int[] cursorRegion = {PanelHitRegions.NONE};
+
+        // 定义光标数组，下标与 PanelHitRegions 的区域一致
+        final Cursor[] cursors = {
+                Cursor.getPredefinedCursor(Cursor.NW_RESIZE_CURSOR),  // 0
+                Cursor.getPredefinedCursor(Cursor.N_RESIZE_CURSOR),   // 1
+                Cursor.getPredefinedCursor(Cursor.NE_RESIZE_CURSOR),  // 2
+                Cursor.getPredefinedCursor(Cursor.W_RESIZE_CURSOR),   // 3
+                Cursor.getPredefinedCursor(Cursor.E_RESIZE_CURSOR),   // 4
+                Cursor.getPredefinedCursor(Cursor.SW_RESIZE_CURSOR),  // 5
+                Cursor.getPredefinedCursor(Cursor.S_RESIZE_CURSOR),   // 6
+                Cursor.getPredefinedCursor(Cursor.SE_RESIZE_CURSOR),  // 7
+                Cursor.getPredefinedCursor(Cursor.MOVE_CURSOR)        // 8
+        };
+
+        final PanelHitRegions[] hitRegions = new PanelHitRegions[1];
+
+        // 创建玻璃面板处理边框事件
+        JPanel glassPane = new JPanel() {
+            @Override
+            public boolean contains(int x, int y) {
+                // 只拦截标题栏拖拽区域和边框，关闭按钮、滚动条等交给下层组件
+                return hitRegions[0] != null && hitRegions[0].hitTest(x, y) != PanelHitRegions.NONE;
+            }
+        };
+
+        glassPane.setOpaque(false);
+        glassPane.setLayout(null);
+        hitRegions[0] = new PanelHitRegions(frame, frame.getContentPane(), glassPane,
+                BORDER_THICKNESS, TITLE_HEIGHT, CLOSE_BUTTON_WIDTH);
+
+        // 鼠标事件处理
+        MouseAdapter mouseAdapter = new MouseAdapter() {
+            private void updateCursor(int region) {
+                if (region == cursorRegion[0]) return;
+                cursorRegion[0] = region;
+                frame.setCursor(region == PanelHitRegions.NONE ? Cursor.getDefaultCursor() : cursors[region]);
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                // 中键按下时不处理
+                if (e.getButton() == MouseEvent.BUTTON2) {
+                    return;
+                }
+
+                int region = hitRegions[0].hitTest(e.getX(), e.getY());
+                if (region == PanelHitRegions.NONE) {
+                    return;
+                }
+
+                // Ctrl/Cmd 点击标题栏：加入或移出分组，不拖动
+                if (region == PanelHitRegions.MOVE && (e.isControlDown() || e.isMetaDown())) {
+                    FloatingPanelGroup.toggleSelection(groupMember);
+                    return;
+                }
+
+                // 上边框区域拖拽，边框缩放；悬浮框在分组内时整组一起变化
+                FloatingPanelGroup.clearSelectionUnless(groupMember);
+                dragStart[0] = e.getLocationOnScreen();
+                dragRegion[0] = region;
+                FloatingPanelGroup.beginGesture(groupMember);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                // 中键释放时不处理
+                if (e.getButton() == MouseEvent.BUTTON2) {
+                    return;
+                }
+
+                // 立即应用最后一帧的边界并恢复布局
+                if (dragStart[0] != null) {
+                    FloatingPanelGroup.endGesture();
+                }
+                dragStart[0] = null;
+                dragRegion[0] = PanelHitRegions.NONE;
+                updateCursor(PanelHitRegions.NONE);
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                // 中键按下时不改变光标
+                if ((e.getModifiersEx() & InputEvent.BUTTON2_DOWN_MASK) != 0) {
+                    updateCursor(PanelHitRegions.NONE);
+                    return;
+                }
+                updateCursor(hitRegions[0].hitTest(e.getX(), e.getY()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                updateCursor(PanelHitRegions.NONE);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                // 中键拖动时不处理
+                if ((e.getModifiersEx() & InputEvent.BUTTON2_DOWN_MASK) != 0) {
+                    return;
+                }
+
+                if (dragStart[0] == null) return;
+
+                // 只登记目标边界，下一帧统一移动/缩放
+                Point onScreen = e.getLocationOnScreen();
+                FloatingPanelGroup.updateGesture(dragRegion[0], onScreen.x - dragStart[0].x, onScreen.y - dragStart[0].y);
+            }
+        };
+
+        glassPane.addMouseListener(mouseAdapter);
+        glassPane.addMouseMotionListener(mouseAdapter);
+
+        frame.setGlassPane(glassPane);
+        glassPane.setVisible(true);
+
+        // 为关闭按钮设置指针光标
+        closeButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+    }
+}
@@ -0,0 +1,214 @@
+package com.print;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框分组：Ctrl（Mac 上为 Cmd）点击标题栏选中多个悬浮框，拖动或缩放其中任意一个时整组一起变化。
+ * 所有成员的新边界都交给 BoundsCoalescer，在同一帧里一次性应用
+ * @Version: 1.0
+ */
+public final class FloatingPanelGroup {
+    // 最小尺寸，与单个悬浮框缩放时的限制一致
+    public static final int MIN_WIDTH = 100;
+    public static final int MIN_HEIGHT = 60;
+
+    /**
+     * 参与分组的悬浮框
+     */
+    public static final class Member {
+        final int panelId;
+        final JDialog dialog;
+        final JPanel contentPanel;
+        final DeferredLayout contentLayout;
+        final Runnable resumeLayout;
+        final Rectangle gestureStart = new Rectangle();
+        final Rectangle target = new Rectangle();
+        boolean selected;
+
+        Member(int panelId, JDialog dialog, JPanel contentPanel, DeferredLayout contentLayout) {
+            this.panelId = panelId;
+            this.dialog = dialog;
+            this.contentPanel = contentPanel;
+            this.contentLayout = contentLayout;
+            this.resumeLayout = () -> contentLayout.setDeferred(contentPanel, false);
+        }
+
+        public boolean isSelected() {
+            return selected;
+        }
+    }
+
+    private static final List<Member> members = new ArrayList<>();
+    // 当前手势涉及的成员：被拖动的悬浮框在选中组内时为整组，否则只有它自己
+    private static final List<Member> gesture = new ArrayList<>();
+    // 当前手势的 JFR 事件和统计，没有手势或未录制时 gestureEvent 为 null
+    private static Object gestureEvent;
+    private static Member gestureLeader;
+    private static boolean gestureResize;
+    private static int gestureMouseEvents;
+    private static long gestureRequestsStart;
+    private static long gestureAppliedStart;
+
+    private FloatingPanelGroup() {
+    }
+
+    /**
+     * @param panelId 悬浮框编号，见 FloatingEditorContent.getId
+     */
+    public static Member register(int panelId, JDialog dialog, JPanel contentPanel, DeferredLayout contentLayout) {
+        Member member = new Member(panelId, dialog, contentPanel, contentLayout);
+        members.add(member);
+        return member;
+    }
+
+    public static void unregister(Member member) {
+        members.remove(member);
+        gesture.remove(member);
+    }
+
+    /**
+     * Ctrl 点击：切换选中状态
+     */
+    public static void toggleSelection(Member member) {
+        member.selected = !member.selected;
+        member.dialog.repaint();
+    }
+
+    /**
+     * 普通点击未选中的悬浮框时清空选择，避免误拖整组
+     */
+    public static void clearSelectionUnless(Member member) {
+        if (member.selected) return;
+        for (Member m : members) {
+            if (m.selected) {
+                m.selected = false;
+                m.dialog.repaint();
+            }
+        }
+    }
+
+    /**
+     * 手势开始：记录所有参与成员的起始边界
+     */
+    public static void beginGesture(Member leader) {
+        endGesture();
+        if (leader.selected) {
+            for (Member m : members) {
+                if (m.selected) gesture.add(m);
+            }
+        } else {
+            gesture.add(leader);
+        }
+        for (Member m : gesture) {
+            m.gestureStart.setBounds(m.dialog.getBounds());
+        }
+        gestureEvent = FlightEvents.beginPanelGesture();
+        if (gestureEvent != null) {
+            BoundsCoalescer coalescer = BoundsCoalescer.getInstance();
+            gestureLeader = leader;
+            gestureResize = false;
+            gestureMouseEvents = 0;
+            gestureRequestsStart = coalescer.getRequestCount();
+            gestureAppliedStart = coalescer.getAppliedCount();
+        }
+    }
+
+    /**
+     * 按同一个位移更新整组的目标边界，实际 setBounds 由 BoundsCoalescer 在下一帧一次性完成
+     *
+     * @param region PanelHitRegions.MOVE 或缩放方向 0~7
+     */
+    public static void updateGesture(int region, int dx, int dy) {
+        BoundsCoalescer coalescer = BoundsCoalescer.getInstance();
+        gestureMouseEvents++;
+        gestureResize = region != PanelHitRegions.MOVE;
+        for (int i = 0; i < gesture.size(); i++) {
+            Member m = gesture.get(i);
+            dragBounds(m.gestureStart, region, dx, dy, m.target);
+            if (region == PanelHitRegions.MOVE) {
+                coalescer.request(m.dialog, m.target, null);
+            } else {
+                // 缩放过程中暂停编辑器布局，手势停顿或结束后再布局
+                m.contentLayout.setDeferred(m.contentPanel, true);
+                coalescer.request(m.dialog, m.target, m.resumeLayout);
+            }
+        }
+    }
+
+    /**
+     * 手势结束：立即应用最后一帧的边界并恢复布局
+     */
+    public static void endGesture() {
+        BoundsCoalescer coalescer = BoundsCoalescer.getInstance();
+        for (Member m : gesture) {
+            coalescer.finish(m.dialog);
+        }
+        if (gestureEvent != null) {
+            FlightEvents.endPanelGesture(gestureEvent, gestureLeader.panelId, gestureResize, gesture.size(),
+                    gestureMouseEvents, coalescer.getRequestCount() - gestureRequestsStart,
+                    coalescer.getAppliedCount() - gestureAppliedStart);
+            gestureEvent = null;
+            gestureLeader = null;
+        }
+        gesture.clear();
+    }
+
+    /**
+     * 根据拖动位移计算新边界，结果写入 out
+     *
+     * @param region PanelHitRegions.MOVE 或缩放方向 0~7
+     */
+    public static void dragBounds(Rectangle start, int region, int dx, int dy, Rectangle out) {
+        out.setBounds(start);
+        switch (region) {
+            case PanelHitRegions.MOVE: // 拖拽窗口
+                out.translate(dx, dy);
+                return;
+            case 0: // NW - 左上角
+                out.x += dx;
+                out.y += dy;
+                out.width -= dx;
+                out.height -= dy;
+                break;
+            case 1: // N - 上边框
+                out.y += dy;
+                out.height -= dy;
+                break;
+            case 2: // NE - 右上角
+                out.y += dy;
+                out.width += dx;
+                out.height -= dy;
+                break;
+            case 3: // W - 左边框
+                out.x += dx;
+                out.width -= dx;
+                break;
+            case 4: // E - 右边框
+                out.width += dx;
+                break;
+            case 5: // SW - 左下角
+                out.x += dx;
+                out.width -= dx;
+                out.height += dy;
+                break;
+            case 6: // S - 下边框
+                out.height += dy;
+                break;
+            case 7: // SE - 右下角
+                out.width += dx;
+                out.height += dy;
+                break;
+            default:
+                break;
+        }
+
+        // 限制最小尺寸
+        if (out.width < MIN_WIDTH) out.width = MIN_WIDTH;
+        if (out.height < MIN_HEIGHT) out.height = MIN_HEIGHT;
+    }
+}
@@ -0,0 +1,383 @@
+package com.print;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 项目级悬浮框管理：记录项目里所有悬浮框，项目关闭或插件卸载时随服务一起释放编辑器、监听器和窗口；
+ * 可设置同时存在的悬浮框上限，超出时关闭最久未使用的一个。
+ * 隐藏、随主窗口最小化或长时间未使用的悬浮框进入休眠，只保留 FloatingPanelState，再次使用时重建编辑器。
+ * 布局保存在项目的 workspace.xml 中，重新打开项目时先逐个显示占位窗口，编辑器等到第一次使用时再创建。
+ * 除 getState 外只在 EDT 上访问；保存可能发生在后台线程，getState 只返回 EDT 上记下的布局快照
+ * @Version: 1.0
+ */
+@State(name = "ScreenMoveEditorPanels", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public class FloatingPanelManager implements Disposable, PersistentStateComponent<FloatingPanelManager.Layout> {
+    private static final Logger LOG = Logger.getInstance(FloatingPanelManager.class);
+    // 空闲检查间隔
+    private static final int IDLE_CHECK_MILLIS = 30_000;
+
+    /**
+     * 已登记的悬浮框
+     */
+    public static final class Panel {
+        final JDialog dialog;
+        final FloatingEditorContent content;
+        // 注销分组并销毁窗口，只执行一次
+        private final Runnable closer;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean closed;
+
+        Panel(JDialog dialog, FloatingEditorContent content, Runnable closer) {
+            this.dialog = dialog;
+            this.content = content;
+            this.closer = closer;
+        }
+
+        public Editor getEditor() {
+            return content.getEditor();
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * 最新状态的副本（含当前窗口位置和大小），只在 EDT 上调用
+         */
+        public FloatingPanelState getState() {
+            FloatingPanelState state = content.getState().copy();
+            Rectangle b = dialog.getBounds();
+            state.x = b.x;
+            state.y = b.y;
+            state.width = b.width;
+            state.height = b.height;
+            return state;
+        }
+    }
+
+    /**
+     * 持久化的布局
+     */
+    public static class Layout {
+        public List<FloatingPanelState> panels = new ArrayList<>();
+    }
+
+    private final Project project;
+    // 按最近使用排序，最前面的是最久未使用的
+    private final Set<Panel> panels = new LinkedHashSet<>();
+    // 读入但尚未恢复的布局；恢复前保存时原样写回，避免丢失
+    private volatile Layout pendingLayout;
+    // 供保存的布局快照：在 EDT 上整体替换，里面的状态都是副本，保存线程读取时不会被改动
+    private volatile Layout savedLayout = new Layout();
+    private boolean snapshotPending;
+    private boolean disposing;
+    // 主窗口最小化状态变化时由 WindowStateCoordinator 回调，一次处理该窗口的全部悬浮框
+    private final WindowStateCoordinator.Listener ownerListener = (owner, iconified) -> {
+        if (iconified) {
+            // 主窗口最小化时悬浮框随之隐藏，编辑器全部释放
+            for (Panel panel : panels) {
+                if (panel.dialog.getOwner() == owner) hibernate(panel);
+            }
+        } else {
+            // 还原后逐个唤醒，每轮事件只重建一个编辑器，避免一次性卡住界面
+            List<Panel> pending = new ArrayList<>();
+            for (Panel panel : panels) {
+                if (panel.dialog.getOwner() == owner && panel.dialog.isVisible()) pending.add(panel);
+            }
+            wakeStaggered(pending, 0);
+        }
+    };
+    private final Timer idleTimer = new Timer(IDLE_CHECK_MILLIS, e -> hibernateIdle());
+
+    public FloatingPanelManager(Project project) {
+        this.project = project;
+    }
+
+    public static FloatingPanelManager getInstance(Project project) {
+        return ServiceManager.getService(project, FloatingPanelManager.class);
+    }
+
+    /**
+     * 登记新的悬浮框，超出上限时先关闭最久未使用的悬浮框
+     */
+    public Panel register(JDialog dialog, FloatingEditorContent content, Runnable closer) {
+        Panel panel = new Panel(dialog, content, closer);
+        panels.add(panel);
+        content.setWakeRequest(() -> touch(panel));
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowActivated(WindowEvent e) {
+                touch(panel);
+                // 获得焦点后立即补上节流期间延后的更新
+                PanelUpdateScheduler.getInstance().flush(dialog);
+            }
+
+            @Override
+            public void windowDeactivated(WindowEvent e) {
+                // 离开悬浮框时记下光标和滚动位置
+                scheduleSnapshot();
+            }
+        });
+        dialog.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentMoved(ComponentEvent e) {
+                scheduleSnapshot();
+            }
+
+            @Override
+            public void componentResized(ComponentEvent e) {
+                scheduleSnapshot();
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                hibernate(panel);
+            }
+        });
+        WindowStateCoordinator.getInstance().watch(dialog.getOwner(), ownerListener);
+        if (!idleTimer.isRunning()) idleTimer.start();
+        trimToLimit(ScreenMoveEditorSettings.current().maxLivePanels);
+        scheduleSnapshot();
+        logCounts();
+        return panel;
+    }
+
+    /**
+     * 标记为最近使用，休眠中的悬浮框随即重建编辑器
+     */
+    public void touch(Panel panel) {
+        if (panel.closed) return;
+        panel.lastUsed = System.currentTimeMillis();
+        if (panels.remove(panel)) panels.add(panel);
+        wake(panel);
+    }
+
+    /**
+     * 释放编辑器，只保留状态记录
+     */
+    public void hibernate(Panel panel) {
+        if (panel.closed || !panel.content.isLive()) return;
+        panel.content.hibernate();
+        scheduleSnapshot();
+        logCounts();
+    }
+
+    public void wake(Panel panel) {
+        if (panel.closed || panel.content.isLive()) return;
+        panel.content.create();
+        logCounts();
+    }
+
+    /**
+     * 依次唤醒：每轮事件只创建一个编辑器，避免一次性卡住界面
+     */
+    public void wakeStaggered(List<Panel> pending) {
+        wakeStaggered(pending, 0);
+    }
+
+    private void wakeStaggered(List<Panel> pending, int index) {
+        if (index >= pending.size()) return;
+        SwingUtilities.invokeLater(() -> {
+            Panel panel = pending.get(index);
+            if (panel.dialog.isVisible()) wake(panel);
+            wakeStaggered(pending, index + 1);
+        });
+    }
+
+    // 超过设定时间没有使用、也不在焦点上的悬浮框进入休眠
+    private void hibernateIdle() {
+        int idleMinutes = ScreenMoveEditorSettings.current().hibernateIdleMinutes;
+        if (idleMinutes <= 0) return;
+        long deadline = System.currentTimeMillis() - idleMinutes * 60_000L;
+        for (Panel panel : panels) {
+            if (panel.lastUsed < deadline && panel.content.isLive() && !panel.dialog.isFocused()) {
+                hibernate(panel);
+            }
+        }
+    }
+
+    /**
+     * 关闭并注销悬浮框；关闭按钮和上限淘汰都走这里
+     */
+    public void close(Panel panel) {
+        if (panel.closed) return;
+        panel.closed = true;
+        panels.remove(panel);
+        try {
+            panel.content.dispose();
+        } finally {
+            panel.closer.run();
+        }
+        if (panels.isEmpty()) idleTimer.stop();
+        scheduleSnapshot();
+        logCounts();
+    }
+
+    /**
+     * 可能在后台保存线程上调用：不访问悬浮框和窗口，只返回 EDT 上记下的快照
+     */
+    @Override
+    public Layout getState() {
+        Layout pending = pendingLayout;
+        return pending != null ? pending : savedLayout;
+    }
+
+    // 拖动和缩放时事件很密，同一轮事件里的多次变化只重建一次快照
+    private void scheduleSnapshot() {
+        if (snapshotPending || disposing) return;
+        snapshotPending = true;
+        SwingUtilities.invokeLater(() -> {
+            snapshotPending = false;
+            if (!disposing) updateSavedLayout();
+        });
+    }
+
+    private void updateSavedLayout() {
+        Layout layout = new Layout();
+        for (Panel panel : panels) {
+            FloatingPanelState state = panel.getState();
+            // 未保存的临时文档没有地址，无法恢复
+            if (state.fileUrl != null) layout.panels.add(state);
+        }
+        savedLayout = layout;
+    }
+
+    @Override
+    public void loadState(Layout state) {
+        pendingLayout = state;
+    }
+
+    /**
+     * 项目打开后恢复上次的布局：每轮事件只创建一个占位窗口，不加载文档、不创建编辑器
+     */
+    public void restoreLayout() {
+        Layout layout = pendingLayout;
+        pendingLayout = null;
+        if (layout == null || !ScreenMoveEditorSettings.current().restorePanelLayout) return;
+        restoreStaggered(layout.panels, 0);
+    }
+
+    private void restoreStaggered(List<FloatingPanelState> states, int index) {
+        if (index >= states.size()) return;
+        SwingUtilities.invokeLater(() -> {
+            if (project.isDisposed()) return;
+            FloatingPanelState state = states.get(index);
+            VirtualFile file = state.fileUrl != null ? VirtualFileManager.getInstance().findFileByUrl(state.fileUrl) : null;
+            if (file != null && file.isValid()) {
+                fitOnScreen(state);
+                FloatingPanelFactory.openFloatingPanel(project, file.getName(), state, null, true);
+            }
+            restoreStaggered(states, index + 1);
+        });
+    }
+
+    // 显示器配置变化后，上次的位置可能已不在任何屏幕上，移到主显示器
+    private static void fitOnScreen(FloatingPanelState state) {
+        Rectangle bounds = new Rectangle(state.x, state.y, Math.max(state.width, 300), Math.max(state.height, 200));
+        for (GraphicsDevice device : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+            if (device.getDefaultConfiguration().getBounds().intersects(bounds)) {
+                state.width = bounds.width;
+                state.height = bounds.height;
+                return;
+            }
+        }
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().getBounds();
+        state.x = screen.x + 100;
+        state.y = screen.y + 100;
+        state.width = bounds.width;
+        state.height = bounds.height;
+    }
+
+    private void trimToLimit(int limit) {
+        if (limit <= 0) return;
+        while (panels.size() > limit) {
+            close(panels.iterator().next());
+        }
+    }
+
+    public int getPanelCount() {
+        return panels.size();
+    }
+
+    /**
+     * 当前持有编辑器实例的悬浮框数量
+     */
+    public int getLiveEditorCount() {
+        int count = 0;
+        for (Panel panel : panels) {
+            if (panel.getEditor() != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * 已创建编辑器或参考视图（未休眠）的悬浮框数量
+     */
+    public int getLiveCount() {
+        int count = 0;
+        for (Panel panel : panels) {
+            if (panel.content.isLive()) count++;
+        }
+        return count;
+    }
+
+    /**
+     * 所有悬浮框大致占用的内存（字节）
+     */
+    public long estimateRetainedBytes() {
+        long bytes = 0;
+        for (Panel panel : panels) {
+            bytes += panel.content.estimateRetainedBytes();
+        }
+        return bytes;
+    }
+
+    private void logCounts() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Floating panels: " + getPanelCount() + ", live editors: " + getLiveEditorCount());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // 先记下最后的布局；之后逐个关闭悬浮框时不再更新快照，免得保存成空布局
+        updateSavedLayout();
+        disposing = true;
+        idleTimer.stop();
+        WindowStateCoordinator.getInstance().unwatch(ownerListener);
+        // 逐个关闭，某个悬浮框释放失败也不影响其余的
+        List<Panel> remaining = new ArrayList<>(panels);
+        for (Panel panel : remaining) {
+            try {
+                close(panel);
+            } catch (RuntimeException ex) {
+                LOG.warn("Failed to close floating panel", ex);
+            }
+        }
+        panels.clear();
+    }
+}
@@ -0,0 +1,56 @@
+package com.print;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框的最小状态记录：休眠时只保留这些字段，据此重新创建编辑器。
+ * 字段均为公开字段，可直接按 XML 序列化
+ * @Version: 1.0
+ */
+public class FloatingPanelState {
+    public String fileUrl;
+    // 只读参考模式：不创建编辑器，firstLine/lastLine 为选中的行
+    public boolean reference;
+    // 片段模式下片段的首末行（原文档行号）；完整编辑器为 -1
+    public int firstLine = -1;
+    public int lastLine = -1;
+    // 第一次打开时居中显示的行（框选起点）
+    public int anchorLine;
+    // 光标位置（原文档偏移），-1 表示未记录
+    public int caretOffset = -1;
+    // 垂直滚动位置（像素），-1 表示还没打开过，按 anchorLine 居中
+    public int scrollOffset = -1;
+    // 可见区域第一行（原文档行号），供休眠占位视图绘制
+    public int topLine;
+    // 悬浮框自己的字号，0 表示使用全局字号
+    public int fontSize;
+    public int x;
+    public int y;
+    public int width;
+    public int height;
+
+    /**
+     * 逐字段复制，供保存布局时交给序列化使用
+     */
+    public FloatingPanelState copy() {
+        FloatingPanelState copy = new FloatingPanelState();
+        copy.fileUrl = fileUrl;
+        copy.reference = reference;
+        copy.firstLine = firstLine;
+        copy.lastLine = lastLine;
+        copy.anchorLine = anchorLine;
+        copy.caretOffset = caretOffset;
+        copy.scrollOffset = scrollOffset;
+        copy.topLine = topLine;
+        copy.fontSize = fontSize;
+        copy.x = x;
+        copy.y = y;
+        copy.width = width;
+        copy.height = height;
+        return copy;
+    }
+
+    public boolean isRangeLimited() {
+        return !reference && firstLine >= 0;
+    }
+}
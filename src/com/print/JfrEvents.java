@@ -0,0 +1,226 @@
+package com.print;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: JFR 自定义事件定义。只有 FlightEvents 确认运行时带 jdk.jfr 后才会加载这个类；
+ * 每种事件先查 EventType.isEnabled，没有录制或录制未开启该事件时不创建事件对象
+ * @Version: 1.0
+ */
+final class JfrEvents {
+    private static final String CATEGORY = "ScreenMoveEditor";
+
+    @Name("com.print.ScreenCapture")
+    @Label("Screen Capture")
+    @Category(CATEGORY)
+    @Description("Robot capture of one monitor, on the capture thread")
+    @StackTrace(false)
+    public static final class ScreenCapture extends Event {
+        @Label("X")
+        int x;
+        @Label("Y")
+        int y;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        @Label("Pixel Width")
+        int pixelWidth;
+        @Label("Pixel Height")
+        int pixelHeight;
+    }
+
+    @Name("com.print.OverlayPaint")
+    @Label("Overlay Paint")
+    @Category(CATEGORY)
+    @Description("One paintComponent call of the capture overlay")
+    @StackTrace(false)
+    public static final class OverlayPaint extends Event {
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        @Label("Clip Width")
+        int clipWidth;
+        @Label("Clip Height")
+        int clipHeight;
+        @Label("First Frame")
+        boolean firstFrame;
+    }
+
+    @Name("com.print.SelectionFinalized")
+    @Label("Selection Finalized")
+    @Category(CATEGORY)
+    @Description("Mouse release on the overlay until the floating panel is created")
+    @StackTrace(false)
+    public static final class SelectionFinalized extends Event {
+        @Label("X")
+        int x;
+        @Label("Y")
+        int y;
+        @Label("Width")
+        int width;
+        @Label("Height")
+        int height;
+        @Label("Modifiers")
+        int modifiers;
+    }
+
+    @Name("com.print.EditorCreate")
+    @Label("Floating Editor Creation")
+    @Category(CATEGORY)
+    @Description("Creating the editor or reference view of a floating panel")
+    @StackTrace(false)
+    public static final class EditorCreate extends Event {
+        @Label("Panel Id")
+        int panelId;
+        @Label("File")
+        String file;
+        @Label("Reference")
+        boolean reference;
+        @Label("Range Limited")
+        boolean rangeLimited;
+        @Label("Document Length")
+        @DataAmount(DataAmount.BYTES)
+        long documentLength;
+    }
+
+    @Name("com.print.PanelGesture")
+    @Label("Panel Drag/Resize")
+    @Category(CATEGORY)
+    @Description("One drag or resize gesture on a floating panel, from mouse press to release")
+    @StackTrace(false)
+    public static final class PanelGesture extends Event {
+        @Label("Panel Id")
+        int panelId;
+        @Label("Resize")
+        boolean resize;
+        @Label("Panels")
+        int panels;
+        @Label("Mouse Events")
+        int mouseEvents;
+        @Label("Coalesced Events")
+        long coalescedEvents;
+        @Label("Applied Bounds Updates")
+        long appliedUpdates;
+    }
+
+    private static final EventType SCREEN_CAPTURE = EventType.getEventType(ScreenCapture.class);
+    private static final EventType OVERLAY_PAINT = EventType.getEventType(OverlayPaint.class);
+    private static final EventType SELECTION_FINALIZED = EventType.getEventType(SelectionFinalized.class);
+    private static final EventType EDITOR_CREATE = EventType.getEventType(EditorCreate.class);
+    private static final EventType PANEL_GESTURE = EventType.getEventType(PanelGesture.class);
+
+    private JfrEvents() {
+    }
+
+    static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    static Object beginScreenCapture() {
+        if (!SCREEN_CAPTURE.isEnabled()) return null;
+        ScreenCapture event = new ScreenCapture();
+        event.begin();
+        return event;
+    }
+
+    static void endScreenCapture(Object handle, Rectangle bounds, int pixelWidth, int pixelHeight) {
+        ScreenCapture event = (ScreenCapture) handle;
+        event.end();
+        event.x = bounds.x;
+        event.y = bounds.y;
+        event.width = bounds.width;
+        event.height = bounds.height;
+        event.pixelWidth = pixelWidth;
+        event.pixelHeight = pixelHeight;
+        event.commit();
+    }
+
+    static Object beginOverlayPaint() {
+        if (!OVERLAY_PAINT.isEnabled()) return null;
+        OverlayPaint event = new OverlayPaint();
+        event.begin();
+        return event;
+    }
+
+    static void endOverlayPaint(Object handle, int width, int height, Rectangle clip, boolean firstFrame) {
+        OverlayPaint event = (OverlayPaint) handle;
+        event.end();
+        event.width = width;
+        event.height = height;
+        event.clipWidth = clip != null ? clip.width : width;
+        event.clipHeight = clip != null ? clip.height : height;
+        event.firstFrame = firstFrame;
+        event.commit();
+    }
+
+    static Object beginSelection() {
+        if (!SELECTION_FINALIZED.isEnabled()) return null;
+        SelectionFinalized event = new SelectionFinalized();
+        event.begin();
+        return event;
+    }
+
+    static void endSelection(Object handle, Rectangle selection, int modifiers) {
+        SelectionFinalized event = (SelectionFinalized) handle;
+        event.end();
+        event.x = selection.x;
+        event.y = selection.y;
+        event.width = selection.width;
+        event.height = selection.height;
+        event.modifiers = modifiers;
+        event.commit();
+    }
+
+    static Object beginEditorCreate() {
+        if (!EDITOR_CREATE.isEnabled()) return null;
+        EditorCreate event = new EditorCreate();
+        event.begin();
+        return event;
+    }
+
+    static void endEditorCreate(Object handle, int panelId, String file, boolean reference, boolean rangeLimited,
+                                long documentLength) {
+        EditorCreate event = (EditorCreate) handle;
+        event.end();
+        event.panelId = panelId;
+        event.file = file;
+        event.reference = reference;
+        event.rangeLimited = rangeLimited;
+        event.documentLength = documentLength;
+        event.commit();
+    }
+
+    static Object beginPanelGesture() {
+        if (!PANEL_GESTURE.isEnabled()) return null;
+        PanelGesture event = new PanelGesture();
+        event.begin();
+        return event;
+    }
+
+    static void endPanelGesture(Object handle, int panelId, boolean resize, int panels, int mouseEvents,
+                                long coalescedEvents, long appliedUpdates) {
+        PanelGesture event = (PanelGesture) handle;
+        event.end();
+        event.panelId = panelId;
+        event.resize = resize;
+        event.panels = panels;
+        event.mouseEvents = mouseEvents;
+        event.coalescedEvents = coalescedEvents;
+        event.appliedUpdates = appliedUpdates;
+        event.commit();
+    }
+}
@@ -0,0 +1,84 @@
+package com.print;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 性能统计工具窗口：显示 PerformanceMetrics 的报告，窗口可见时每秒刷新一次；
+ * 可清零，也可追加写入 IDE 日志目录下的 screenmoveeditor-metrics.log，方便附在卡顿反馈里
+ * @Version: 1.0
+ */
+public class MetricsToolWindowFactory implements ToolWindowFactory, DumbAware {
+    private static final Logger LOG = Logger.getInstance(MetricsToolWindowFactory.class);
+    private static final String LOG_FILE = "screenmoveeditor-metrics.log";
+    private static final int REFRESH_MILLIS = 1000;
+
+    @Override
+    public void createToolWindowContent(Project project, ToolWindow toolWindow) {
+        JTextArea text = new JTextArea();
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, text.getFont().getSize()));
+        JLabel status = new JLabel(" ");
+
+        // 只在窗口显示时刷新，隐藏时定时器空转不生成报告
+        Timer timer = new Timer(REFRESH_MILLIS, e -> {
+            if (text.isShowing()) text.setText(PerformanceMetrics.getInstance().report());
+        });
+        timer.start();
+
+        JButton reset = new JButton(ScreenMoveEditorBundle.message("metrics.reset"));
+        reset.addActionListener(e -> {
+            PerformanceMetrics.getInstance().reset();
+            text.setText(PerformanceMetrics.getInstance().report());
+        });
+        JButton dump = new JButton(ScreenMoveEditorBundle.message("metrics.dump"));
+        dump.addActionListener(e -> status.setText(dump(PerformanceMetrics.getInstance().report())));
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(reset);
+        buttons.add(dump);
+        buttons.add(status);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(buttons, BorderLayout.NORTH);
+        panel.add(new JScrollPane(text), BorderLayout.CENTER);
+        text.setText(PerformanceMetrics.getInstance().report());
+
+        Content content = toolWindow.getContentManager().getFactory().createContent(panel, "", false);
+        content.setDisposer((Disposable) timer::stop);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    // 追加写入日志文件，返回显示在状态栏的提示
+    private static String dump(String report) {
+        File file = new File(PathManager.getLogPath(), LOG_FILE);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write("=== " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) + " ===");
+            writer.write(System.lineSeparator());
+            writer.write(report);
+            writer.write(System.lineSeparator());
+            return ScreenMoveEditorBundle.message("metrics.dumped") + " " + file.getPath();
+        } catch (IOException ex) {
+            LOG.warn("Failed to write " + file, ex);
+            return ScreenMoveEditorBundle.message("metrics.dump.failed");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.print;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.VolatileImage;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 截图遮罩的预合成背景：截图时生成一份变暗副本和一份原图副本，
+ * 每帧只需从两张图中各拷贝一块区域，不再逐帧叠加遮罩、clearRect 和 getSubimage。
+ * 两张图都是不透明的 INT_RGB；变暗副本的缓冲区可以传入上一次截图用过的同尺寸缓冲区复用，
+ * 遮罩关闭后 flush 丢掉截图引用，只把变暗缓冲区交还给调用方
+ * @Version: 1.0
+ */
+public class OverlayBackground {
+    private static final Color MASK_COLOR = new Color(0, 0, 0, 100);
+
+    private BufferedImage bright;
+    private BufferedImage dimmed;
+    // 截图在屏幕上占用的逻辑尺寸；HiDPI 下截图按物理像素保存，比逻辑尺寸大
+    private final int userWidth;
+    private final int userHeight;
+
+    // 显存加速副本，不可用时为 null，直接使用上面的 BufferedImage
+    private VolatileImage brightVolatile;
+    private VolatileImage dimmedVolatile;
+    private boolean accelerationEnabled = true;
+
+    public OverlayBackground(BufferedImage screenshot, int userWidth, int userHeight) {
+        this(screenshot, userWidth, userHeight, null);
+    }
+
+    /**
+     * @param reusable 可复用的变暗缓冲区，尺寸或格式不符时忽略，可为 null
+     */
+    public OverlayBackground(BufferedImage screenshot, int userWidth, int userHeight, BufferedImage reusable) {
+        this.bright = screenshot;
+        this.userWidth = userWidth;
+        this.userHeight = userHeight;
+        this.dimmed = reusable != null && reusable.getWidth() == screenshot.getWidth()
+                && reusable.getHeight() == screenshot.getHeight() && reusable.getType() == BufferedImage.TYPE_INT_RGB
+                ? reusable
+                : new BufferedImage(screenshot.getWidth(), screenshot.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dimmed.createGraphics();
+        try {
+            g.drawImage(screenshot, 0, 0, null);
+            g.setColor(MASK_COLOR);
+            g.fillRect(0, 0, screenshot.getWidth(), screenshot.getHeight());
+        } finally {
+            g.dispose();
+        }
+    }
+
+    public int getWidth() {
+        return userWidth;
+    }
+
+    public int getHeight() {
+        return userHeight;
+    }
+
+    // 截图原图（物理像素），flush 之后为 null
+    BufferedImage getScreenshot() {
+        return bright;
+    }
+
+    /**
+     * 截图和变暗副本占用的堆内存（字节），flush 之后为 0
+     */
+    public long getImageBytes() {
+        return imageBytes(bright) + imageBytes(dimmed);
+    }
+
+    static long imageBytes(BufferedImage image) {
+        if (image == null) return 0;
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    /**
+     * 绘制一帧：clip 内铺变暗图，选区内铺原图。两次都是区域拷贝，耗时只和重绘区域大小有关
+     *
+     * @param originX 截图左上角在 target 中的位置
+     * @param originY 截图左上角在 target 中的位置
+     */
+    public void paint(Graphics g, Component target, int originX, int originY, int selX, int selY, int selW, int selH) {
+        Image dim = dimmed;
+        Image src = bright;
+        GraphicsConfiguration gc = target.getGraphicsConfiguration();
+        if (accelerationEnabled && gc != null) {
+            dimmedVolatile = validate(dimmedVolatile, dimmed, gc);
+            brightVolatile = validate(brightVolatile, bright, gc);
+            if (dimmedVolatile != null && brightVolatile != null) {
+                dim = dimmedVolatile;
+                src = brightVolatile;
+            }
+        }
+
+        int imageWidth = bright.getWidth();
+        int imageHeight = bright.getHeight();
+        g.drawImage(dim, originX, originY, originX + userWidth, originY + userHeight,
+                0, 0, imageWidth, imageHeight, null);
+        if (selW > 0 && selH > 0) {
+            int x1 = Math.max(originX, selX);
+            int y1 = Math.max(originY, selY);
+            int x2 = Math.min(selX + selW, originX + userWidth);
+            int y2 = Math.min(selY + selH, originY + userHeight);
+            if (x2 > x1 && y2 > y1) {
+                // 逻辑坐标换算为截图的物理像素坐标
+                g.drawImage(src, x1, y1, x2, y2,
+                        (x1 - originX) * imageWidth / userWidth, (y1 - originY) * imageHeight / userHeight,
+                        (x2 - originX) * imageWidth / userWidth, (y2 - originY) * imageHeight / userHeight, null);
+            }
+        }
+    }
+
+    // 确保显存副本可用；显存丢失时从 BufferedImage 重新上传，创建失败则永久退回软件绘制
+    private VolatileImage validate(VolatileImage image, BufferedImage source, GraphicsConfiguration gc) {
+        try {
+            int status = image == null ? VolatileImage.IMAGE_INCOMPATIBLE : image.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (image != null) image.flush();
+                image = gc.createCompatibleVolatileImage(source.getWidth(), source.getHeight(), Transparency.OPAQUE);
+                image.validate(gc);
+                upload(image, source);
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                upload(image, source);
+            }
+            return image;
+        } catch (Throwable t) {
+            accelerationEnabled = false;
+            if (image != null) image.flush();
+            return null;
+        }
+    }
+
+    private void upload(VolatileImage image, BufferedImage source) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * 遮罩关闭后释放显存并丢掉截图引用，之后不能再绘制
+     *
+     * @return 变暗副本的缓冲区，可传给下一次截图复用
+     */
+    public BufferedImage flush() {
+        if (brightVolatile != null) brightVolatile.flush();
+        if (dimmedVolatile != null) dimmedVolatile.flush();
+        brightVolatile = null;
+        dimmedVolatile = null;
+        BufferedImage buffer = dimmed;
+        if (bright != null) bright.flush();
+        bright = null;
+        dimmed = null;
+        return buffer;
+    }
+}
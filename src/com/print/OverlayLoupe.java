@@ -0,0 +1,200 @@
+package com.print;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 截图遮罩的放大镜：跟随光标显示周围 15×15 个物理像素的放大图、像素网格和坐标。
+ * 截图按 16×16 像素切块，每块放大并画好网格后缓存在固定数量的块缓冲区里，
+ * 每帧只从最多四块中各拷贝一块区域，光标移进新的块时才重新渲染那一块，绘制时不分配图像。只在 EDT 上访问
+ * @Version: 1.0
+ */
+public final class OverlayLoupe {
+    // 放大镜显示的截图像素数（奇数，中心是光标所在的像素）和每个像素放大后的边长
+    private static final int SOURCE_PIXELS = 15;
+    private static final int CELL = 8;
+    private static final int HALF = SOURCE_PIXELS / 2;
+    public static final int SIZE = SOURCE_PIXELS * CELL;
+    // 切块边长（截图像素）和缓存的块数；放大镜最多同时跨四块，多留几块供光标来回移动
+    private static final int TILE = 16;
+    private static final int TILE_SIZE = TILE * CELL;
+    private static final int SLOTS = 9;
+    // 放大镜离光标的距离
+    private static final int OFFSET = 20;
+    // 网格线用不透明色：半透明的线在软件绘制下每块要多花约 1ms
+    private static final Color GRID = new Color(70, 70, 70);
+    private static final Color OUTSIDE = new Color(40, 40, 40);
+    private static final Color LABEL_BACKGROUND = new Color(0, 0, 0, 180);
+
+    private final BufferedImage[] tiles = new BufferedImage[SLOTS];
+    private final Graphics2D[] tileGraphics = new Graphics2D[SLOTS];
+    // 每块缓冲区当前缓存的截图和块坐标，owner 为 null 表示空闲
+    private final OverlayBackground[] owners = new OverlayBackground[SLOTS];
+    private final int[] tileX = new int[SLOTS];
+    private final int[] tileY = new int[SLOTS];
+    private final long[] lastUsed = new long[SLOTS];
+    private long useCounter;
+    private final char[] label = new char[32];
+
+    /**
+     * 放大镜和坐标标签占用的区域（面板坐标），靠近面板边缘时翻到光标的另一侧
+     */
+    public void computeBounds(int cursorX, int cursorY, int panelWidth, int panelHeight, FontMetrics fm, Rectangle r) {
+        int height = SIZE + fm.getHeight() + 4;
+        int x = cursorX + OFFSET;
+        int y = cursorY + OFFSET;
+        if (x + SIZE > panelWidth) x = cursorX - OFFSET - SIZE;
+        if (y + height > panelHeight) y = cursorY - OFFSET - height;
+        r.setBounds(x, y, SIZE, height);
+    }
+
+    /**
+     * 绘制放大镜
+     *
+     * @param originX 截图左上角在面板中的位置
+     * @param screenX 光标的屏幕坐标，用于坐标标签
+     * @param bounds  computeBounds 算好的区域
+     */
+    public void paint(Graphics2D g, OverlayBackground background, int originX, int originY,
+                      int cursorX, int cursorY, int screenX, int screenY, Rectangle bounds) {
+        BufferedImage screenshot = background.getScreenshot();
+        if (screenshot == null) return;
+        int imageWidth = screenshot.getWidth();
+        int imageHeight = screenshot.getHeight();
+        // 光标所在的截图物理像素
+        int px = Math.min(imageWidth - 1, Math.max(0, (cursorX - originX) * imageWidth / background.getWidth()));
+        int py = Math.min(imageHeight - 1, Math.max(0, (cursorY - originY) * imageHeight / background.getHeight()));
+        int sx0 = px - HALF;
+        int sy0 = py - HALF;
+        int lx = bounds.x;
+        int ly = bounds.y;
+
+        g.setColor(OUTSIDE);
+        g.fillRect(lx, ly, SIZE, SIZE);
+        int lastTileX = Math.floorDiv(sx0 + SOURCE_PIXELS - 1, TILE);
+        int lastTileY = Math.floorDiv(sy0 + SOURCE_PIXELS - 1, TILE);
+        for (int ty = Math.floorDiv(sy0, TILE); ty <= lastTileY; ty++) {
+            for (int tx = Math.floorDiv(sx0, TILE); tx <= lastTileX; tx++) {
+                if (tx < 0 || ty < 0 || tx * TILE >= imageWidth || ty * TILE >= imageHeight) continue;
+                BufferedImage tile = tile(background, screenshot, tx, ty);
+                // 块在放大镜中的位置，裁到放大镜范围内后 1:1 拷贝
+                int dx = lx + (tx * TILE - sx0) * CELL;
+                int dy = ly + (ty * TILE - sy0) * CELL;
+                int x1 = Math.max(dx, lx);
+                int y1 = Math.max(dy, ly);
+                int x2 = Math.min(dx + TILE_SIZE, lx + SIZE);
+                int y2 = Math.min(dy + TILE_SIZE, ly + SIZE);
+                if (x2 <= x1 || y2 <= y1) continue;
+                g.drawImage(tile, x1, y1, x2, y2, x1 - dx, y1 - dy, x2 - dx, y2 - dy, null);
+            }
+        }
+
+        // 中心像素和外框
+        int center = HALF * CELL;
+        g.setColor(Color.BLACK);
+        g.drawRect(lx + center - 1, ly + center - 1, CELL + 1, CELL + 1);
+        g.setColor(Color.WHITE);
+        g.drawRect(lx + center, ly + center, CELL - 1, CELL - 1);
+        g.drawRect(lx, ly, SIZE - 1, SIZE - 1);
+
+        // 坐标和中心像素的颜色，写入字符缓冲区避免每帧拼接字符串
+        int len = appendInt(0, screenX);
+        label[len++] = ',';
+        label[len++] = ' ';
+        len = appendInt(len, screenY);
+        label[len++] = ' ';
+        label[len++] = ' ';
+        label[len++] = '#';
+        int rgb = screenshot.getRGB(px, py);
+        for (int shift = 20; shift >= 0; shift -= 4) {
+            label[len++] = Character.toUpperCase(Character.forDigit((rgb >> shift) & 0xF, 16));
+        }
+        FontMetrics fm = g.getFontMetrics();
+        g.setColor(LABEL_BACKGROUND);
+        g.fillRect(lx, ly + SIZE, SIZE, bounds.height - SIZE);
+        g.setColor(Color.WHITE);
+        g.drawChars(label, 0, len, lx + 4, ly + SIZE + 2 + fm.getAscent());
+    }
+
+    // 取缓存的放大块，没有时挑最久未用的缓冲区重新渲染
+    private BufferedImage tile(OverlayBackground background, BufferedImage screenshot, int tx, int ty) {
+        int victim = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (owners[i] == background && tileX[i] == tx && tileY[i] == ty) {
+                lastUsed[i] = ++useCounter;
+                return tiles[i];
+            }
+            if (lastUsed[i] < lastUsed[victim]) victim = i;
+        }
+        if (tiles[victim] == null) {
+            tiles[victim] = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+            tileGraphics[victim] = tiles[victim].createGraphics();
+            tileGraphics[victim].setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        }
+        render(tileGraphics[victim], screenshot, tx, ty);
+        owners[victim] = background;
+        tileX[victim] = tx;
+        tileY[victim] = ty;
+        lastUsed[victim] = ++useCounter;
+        return tiles[victim];
+    }
+
+    // 把一块截图按 CELL 倍最近邻放大，超出截图的部分填底色，再画上网格
+    private static void render(Graphics2D g, BufferedImage screenshot, int tx, int ty) {
+        int sx = tx * TILE;
+        int sy = ty * TILE;
+        int w = Math.min(TILE, screenshot.getWidth() - sx);
+        int h = Math.min(TILE, screenshot.getHeight() - sy);
+        if (w < TILE || h < TILE) {
+            g.setColor(OUTSIDE);
+            g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+        }
+        g.drawImage(screenshot, 0, 0, w * CELL, h * CELL, sx, sy, sx + w, sy + h, null);
+        g.setColor(GRID);
+        for (int i = 0; i < TILE; i++) {
+            g.fillRect(i * CELL, 0, 1, TILE_SIZE);
+            g.fillRect(0, i * CELL, TILE_SIZE, 1);
+        }
+    }
+
+    private int appendInt(int pos, int value) {
+        if (value < 0) {
+            label[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            label[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    /**
+     * 遮罩关闭时调用：丢掉对截图的引用，块缓冲区留给下次截图
+     */
+    public void reset() {
+        for (int i = 0; i < SLOTS; i++) {
+            owners[i] = null;
+            lastUsed[i] = 0;
+        }
+        useCounter = 0;
+    }
+
+    /**
+     * 释放块缓冲区
+     */
+    public void dispose() {
+        reset();
+        for (int i = 0; i < SLOTS; i++) {
+            if (tileGraphics[i] != null) tileGraphics[i].dispose();
+            if (tiles[i] != null) tiles[i].flush();
+            tileGraphics[i] = null;
+            tiles[i] = null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.print;
+
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 记录截图遮罩每一帧的重绘面积与耗时，用于对比增量重绘与整屏重绘
+ * @Version: 1.0
+ */
+public class OverlayRepaintStats {
+    private long frames;
+    private long paintedPixels;
+    private long fullPixels;
+    private long totalNanos;
+    private long maxNanos;
+    // F4 到遮罩第一帧、F4 到截图替换占位遮罩的耗时，-1 表示未发生
+    private long firstFrameNanos = -1;
+    private long screenshotReadyNanos = -1;
+
+    /**
+     * @param clip     本帧实际重绘区域，null 表示整个组件
+     * @param width    遮罩宽度
+     * @param height   遮罩高度
+     * @param nanos    paintComponent 耗时
+     */
+    public void record(Rectangle clip, int width, int height, long nanos) {
+        long full = (long) width * height;
+        long painted = clip == null ? full
+                : (long) Math.max(0, Math.min(clip.width, width)) * Math.max(0, Math.min(clip.height, height));
+        frames++;
+        paintedPixels += painted;
+        fullPixels += full;
+        totalNanos += nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    public void recordFirstFrame(long latencyNanos) {
+        firstFrameNanos = latencyNanos;
+    }
+
+    // 只记录第一块显示器的截图就绪时间
+    public void recordScreenshotReady(long latencyNanos) {
+        if (screenshotReadyNanos < 0) screenshotReadyNanos = latencyNanos;
+    }
+
+    public double getFirstFrameMillis() {
+        return firstFrameNanos / 1_000_000.0;
+    }
+
+    public double getScreenshotReadyMillis() {
+        return screenshotReadyNanos / 1_000_000.0;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    // 相对整屏重绘节省的像素比例，0 ~ 1
+    public double getSavedAreaRatio() {
+        return fullPixels == 0 ? 0 : 1.0 - (double) paintedPixels / fullPixels;
+    }
+
+    public double getAverageFrameMillis() {
+        return frames == 0 ? 0 : totalNanos / 1_000_000.0 / frames;
+    }
+
+    public double getMaxFrameMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("overlay frames=%d, saved area=%.1f%%, avg frame=%.2fms, max frame=%.2fms, "
+                        + "F4 to first frame=%.1fms, F4 to screenshot=%.1fms",
+                frames, getSavedAreaRatio() * 100, getAverageFrameMillis(), getMaxFrameMillis(),
+                getFirstFrameMillis(), getScreenshotReadyMillis());
+    }
+}
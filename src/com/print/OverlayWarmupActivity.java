@@ -0,0 +1,84 @@
+package com.print;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 项目打开后在 EDT 空闲时预热截图遮罩，第一次按 F4 不再创建本地窗口。
+ * 开启空闲预加载时（默认开启），再在后台线程加载截图和悬浮框用到的类和消息资源，
+ * 并在 EDT 上离屏画一帧遮罩，初始化绘制管线和字体；整个应用只预加载一次
+ * @Version: 1.0
+ */
+public class OverlayWarmupActivity implements StartupActivity, DumbAware {
+    private static final Logger LOG = Logger.getInstance(OverlayWarmupActivity.class);
+    // 第一次截图和框选会用到的类；只加载不初始化，静态初始化仍留到第一次使用时在 EDT 上执行
+    private static final String[] PRELOAD_CLASSES = {
+            "com.print.ScreenCaptureEngine",
+            "com.print.OverlayBackground",
+            "com.print.OverlayRepaintStats",
+            "com.print.FloatingPanelFactory",
+            "com.print.FloatingEditorContent",
+            "com.print.FloatingPanelGroup",
+            "com.print.PanelHitRegions",
+            "com.print.PanelChromeCache",
+            "com.print.BoundsCoalescer",
+            "com.print.RangeLimitedDocument",
+            "com.print.SharedHighlighters",
+            "com.print.ReferenceView",
+            "com.print.EditorFontCache",
+            "com.print.PanelUpdateScheduler",
+    };
+    private static final AtomicBoolean preloaded = new AtomicBoolean();
+
+    @Override
+    public void runActivity(Project project) {
+        if (GraphicsEnvironment.isHeadless()) return;
+        ApplicationManager.getApplication().invokeLater(() -> {
+            try {
+                CaptureOverlay.getInstance().warmUp();
+            } catch (AWTException | RuntimeException | LinkageError ex) {
+                // 预热失败不影响使用，按 F4 时会再次创建
+                LOG.warn("Failed to warm up the capture overlay", ex);
+                return;
+            }
+            if (ScreenMoveEditorSettings.current().preloadOnIdle && preloaded.compareAndSet(false, true)) {
+                preload();
+            }
+        });
+    }
+
+    private static void preload() {
+        long startNanos = System.nanoTime();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            ClassLoader loader = OverlayWarmupActivity.class.getClassLoader();
+            for (String name : PRELOAD_CLASSES) {
+                try {
+                    Class.forName(name, false, loader);
+                } catch (ClassNotFoundException | LinkageError ex) {
+                    // 类加载失败留到真正使用时报告
+                    LOG.debug("Failed to preload " + name, ex);
+                }
+            }
+            ScreenMoveEditorBundle.message("unnamed.file");
+            ApplicationManager.getApplication().invokeLater(() -> {
+                try {
+                    CaptureOverlay.getInstance().preloadRendering();
+                } catch (RuntimeException | LinkageError ex) {
+                    // 预加载失败不影响使用
+                    LOG.warn("Failed to preload overlay rendering", ex);
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Overlay preloaded in " + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,205 @@
+package com.print;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框外观缓存：窗口圆角形状按尺寸复用，根面板/标题栏/内容区的背景按颜色和缩放比例
+ * 预先渲染成九宫格小图，重绘时按尺寸贴图，缩放过程中不会每帧生成新图；两个缓存都按最近最少使用淘汰，只在 EDT 上访问
+ * @Version: 1.0
+ */
+public final class PanelChromeCache {
+    public static final int ARC = 8;
+
+    private static final int MAX_SHAPES = 64;
+    private static final int MAX_IMAGES = 48;
+    // 九宫格原图的逻辑边长：两个圆角加 1px 可拉伸的中间部分
+    private static final int TILE = ARC * 2 + 1;
+
+    private static final int ROOT = 0;
+    private static final int TITLE = 1;
+    private static final int CONTENT = 2;
+    private static final int TITLE_SELECTED = 3;
+
+    private static final Color ROOT_BACKGROUND = new Color(45, 45, 45);
+    private static final Color ROOT_BORDER = new Color(100, 100, 100);
+    private static final Color TITLE_BACKGROUND = new Color(60, 60, 60);
+    private static final Color TITLE_SELECTED_BACKGROUND = new Color(55, 85, 140);
+
+    private static final class Key {
+        int kind;
+        int rgb;
+        boolean rounded;
+        double scale;
+
+        Key set(int kind, int rgb, boolean rounded, double scale) {
+            this.kind = kind;
+            this.rgb = rgb;
+            this.rounded = rounded;
+            this.scale = scale;
+            return this;
+        }
+
+        Key copy() {
+            return new Key().set(kind, rgb, rounded, scale);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return kind == k.kind && rgb == k.rgb && rounded == k.rounded && scale == k.scale;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = kind;
+            h = h * 31 + rgb;
+            h = h * 31 + (rounded ? 1 : 0);
+            return h * 31 + Double.hashCode(scale);
+        }
+    }
+
+    private static final Map<Long, Shape> shapes = new LinkedHashMap<Long, Shape>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Shape> eldest) {
+            return size() > MAX_SHAPES;
+        }
+    };
+
+    private static final Map<Key, BufferedImage> images = new LinkedHashMap<Key, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+            if (size() > MAX_IMAGES) {
+                eldest.getValue().flush();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // 查找用的临时 key，避免每次重绘都分配
+    private static final Key probe = new Key();
+
+    private PanelChromeCache() {
+    }
+
+    /**
+     * 按尺寸复用的圆角窗口形状
+     */
+    public static Shape windowShape(int width, int height) {
+        long key = ((long) width << 32) | (height & 0xffffffffL);
+        Shape shape = shapes.get(key);
+        if (shape == null) {
+            shape = new RoundRectangle2D.Double(0, 0, width, height, ARC, ARC);
+            shapes.put(key, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * 当前环境能否使用不规则窗口；不支持时调用 setShape 会抛异常
+     */
+    public static boolean isShapingSupported(Window window) {
+        GraphicsConfiguration gc = window.getGraphicsConfiguration();
+        GraphicsDevice device = gc != null ? gc.getDevice()
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+        return device.isWindowTranslucencySupported(GraphicsDevice.WindowTranslucency.PERPIXEL_TRANSPARENT);
+    }
+
+    // 绘制圆角背景和圆角边框
+    public static void paintRootBackground(Graphics g, int width, int height, boolean rounded) {
+        paint(g, ROOT, width, height, 0, rounded);
+    }
+
+    // 绘制标题栏背景，顶部圆角，分组选中时高亮
+    public static void paintTitleBar(Graphics g, int width, int height, boolean rounded, boolean selected) {
+        paint(g, selected ? TITLE_SELECTED : TITLE, width, height, 0, rounded);
+    }
+
+    // 绘制内容区背景，底部圆角
+    public static void paintContentBackground(Graphics g, int width, int height, Color background, boolean rounded) {
+        paint(g, CONTENT, width, height, background.getRGB(), rounded);
+    }
+
+    private static void paint(Graphics g, int kind, int width, int height, int rgb, boolean rounded) {
+        if (width <= 0 || height <= 0) return;
+        double scale = scaleOf(g);
+        BufferedImage tile = images.get(probe.set(kind, rgb, rounded, scale));
+        if (tile == null) {
+            tile = render(kind, rgb, rounded, scale);
+            images.put(probe.copy(), tile);
+        }
+
+        // 九宫格贴图：四角原样绘制，四边和中心拉伸，任意尺寸都只用同一张小图
+        int c = Math.min(ARC, Math.min(width, height) / 2);
+        int sc = (int) Math.round(ARC * scale);
+        int st = tile.getWidth();
+        int w = width, h = height;
+        slice(g, tile, 0, 0, c, c, 0, 0, sc, sc);
+        slice(g, tile, c, 0, w - c, c, sc, 0, st - sc, sc);
+        slice(g, tile, w - c, 0, w, c, st - sc, 0, st, sc);
+        slice(g, tile, 0, c, c, h - c, 0, sc, sc, st - sc);
+        slice(g, tile, c, c, w - c, h - c, sc, sc, st - sc, st - sc);
+        slice(g, tile, w - c, c, w, h - c, st - sc, sc, st, st - sc);
+        slice(g, tile, 0, h - c, c, h, 0, st - sc, sc, st);
+        slice(g, tile, c, h - c, w - c, h, sc, st - sc, st - sc, st);
+        slice(g, tile, w - c, h - c, w, h, st - sc, st - sc, st, st);
+    }
+
+    private static void slice(Graphics g, BufferedImage tile, int dx1, int dy1, int dx2, int dy2,
+                              int sx1, int sy1, int sx2, int sy2) {
+        if (dx2 <= dx1 || dy2 <= dy1) return;
+        g.drawImage(tile, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+    }
+
+    private static double scaleOf(Graphics g) {
+        if (!(g instanceof Graphics2D)) return 1;
+        AffineTransform tx = ((Graphics2D) g).getTransform();
+        return Math.max(1, Math.abs(tx.getScaleX()));
+    }
+
+    // 渲染 (2*ARC+1) 见方的九宫格原图
+    private static BufferedImage render(int kind, int rgb, boolean rounded, double scale) {
+        int size = TILE;
+        int pixels = (int) Math.round(ARC * scale) * 2 + (int) Math.ceil(scale);
+        BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.scale(pixels / (double) size, pixels / (double) size);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int arc = rounded ? ARC : 0;
+            switch (kind) {
+                case ROOT:
+                    g2d.setColor(ROOT_BACKGROUND);
+                    g2d.fillRoundRect(0, 0, size, size, arc, arc);
+                    g2d.setColor(ROOT_BORDER);
+                    g2d.setStroke(new BasicStroke(1.0f));
+                    g2d.drawRoundRect(0, 0, size - 1, size - 1, arc, arc);
+                    break;
+                case TITLE:
+                case TITLE_SELECTED:
+                    g2d.setColor(kind == TITLE_SELECTED ? TITLE_SELECTED_BACKGROUND : TITLE_BACKGROUND);
+                    g2d.fillRoundRect(0, 0, size, size + 4, arc, arc);
+                    // 绘制底部直线，确保与内容区域无缝连接
+                    g2d.fillRect(0, size - 2, size, 4);
+                    break;
+                case CONTENT:
+                    g2d.setColor(new Color(rgb, true));
+                    g2d.fillRoundRect(0, -4, size, size + 4, arc, arc);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,168 @@
+package com.print;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.ContainerAdapter;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框玻璃面板的命中区域缓存：标题栏、关闭按钮、边框和滚动条的矩形只在
+ * 窗口尺寸或布局变化时重新计算，每次鼠标事件只做几次矩形判断，不遍历组件树、不分配对象
+ * @Version: 1.0
+ */
+public class PanelHitRegions {
+    // 0~7 与缩放方向一致：NW, N, NE, W, E, SW, S, SE
+    public static final int NONE = -1;
+    public static final int MOVE = 8;
+
+    private static final int MAX_SCROLL_BARS = 8;
+
+    private final Component frame;
+    private final Container contentRoot;
+    private final Component glassPane;
+    private final int borderThickness;
+    private final int titleHeight;
+    private final int closeButtonWidth;
+
+    private final Rectangle closeRect = new Rectangle();
+    private final Rectangle moveRect = new Rectangle();
+    private final Rectangle[] scrollBarRects = new Rectangle[MAX_SCROLL_BARS];
+    private int scrollBarCount;
+    private int width;
+    private int height;
+    private boolean dirty = true;
+
+    // 任何可能改变命中区域的事件都只把缓存标记为失效，下一次命中测试时再重算
+    private final ComponentListener invalidator = new ComponentAdapter() {
+        @Override
+        public void componentResized(ComponentEvent e) {
+            dirty = true;
+        }
+
+        @Override
+        public void componentMoved(ComponentEvent e) {
+            if (e.getComponent() != frame) dirty = true;
+        }
+
+        @Override
+        public void componentShown(ComponentEvent e) {
+            dirty = true;
+        }
+
+        @Override
+        public void componentHidden(ComponentEvent e) {
+            dirty = true;
+        }
+    };
+
+    private final ContainerListener structureInvalidator = new ContainerAdapter() {
+        @Override
+        public void componentAdded(ContainerEvent e) {
+            dirty = true;
+        }
+
+        @Override
+        public void componentRemoved(ContainerEvent e) {
+            dirty = true;
+        }
+    };
+
+    public PanelHitRegions(Component frame, Container contentRoot, Component glassPane,
+                           int borderThickness, int titleHeight, int closeButtonWidth) {
+        this.frame = frame;
+        this.contentRoot = contentRoot;
+        this.glassPane = glassPane;
+        this.borderThickness = borderThickness;
+        this.titleHeight = titleHeight;
+        this.closeButtonWidth = closeButtonWidth;
+        for (int i = 0; i < MAX_SCROLL_BARS; i++) {
+            scrollBarRects[i] = new Rectangle();
+        }
+        frame.addComponentListener(invalidator);
+    }
+
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * @return 缩放方向 0~7、MOVE，或 NONE 表示事件交给下层组件处理
+     */
+    public int hitTest(int x, int y) {
+        if (dirty) rebuild();
+
+        // 排除关闭按钮区域
+        if (closeRect.contains(x, y)) return NONE;
+
+        // 如果当前位置在任意滚动条上，则不拦截（交给滚动条处理）
+        for (int i = 0; i < scrollBarCount; i++) {
+            if (scrollBarRects[i].contains(x, y)) return NONE;
+        }
+
+        // 上边框区域只支持拖拽，不支持缩放
+        if (y < titleHeight) {
+            return moveRect.contains(x, y) ? MOVE : NONE;
+        }
+
+        // 边框缩放
+        boolean left = x < borderThickness;
+        boolean right = x > width - borderThickness;
+        boolean top = y < borderThickness;
+        boolean bottom = y > height - borderThickness;
+
+        if (top && left) return 0;       // NW
+        if (top && right) return 2;      // NE
+        if (bottom && left) return 5;    // SW
+        if (bottom && right) return 7;   // SE
+        if (top) return 1;               // N
+        if (bottom) return 6;            // S
+        if (left) return 3;              // W
+        if (right) return 4;             // E
+        return NONE;
+    }
+
+    private void rebuild() {
+        dirty = false;
+        width = frame.getWidth();
+        height = frame.getHeight();
+        closeRect.setBounds(width - closeButtonWidth, 0, closeButtonWidth, titleHeight);
+        moveRect.setBounds(borderThickness, 0, Math.max(0, width - 2 * borderThickness), titleHeight);
+        scrollBarCount = 0;
+        collectScrollBars(contentRoot);
+    }
+
+    // 只在缓存失效时遍历组件树，顺便给新出现的容器和滚动条挂上失效监听
+    private void collectScrollBars(Component comp) {
+        if (comp instanceof JScrollBar) {
+            JScrollBar bar = (JScrollBar) comp;
+            attach(bar);
+            if (bar.isShowing() && scrollBarCount < MAX_SCROLL_BARS) {
+                Rectangle r = scrollBarRects[scrollBarCount++];
+                r.setBounds(0, 0, bar.getWidth(), bar.getHeight());
+                r.setLocation(SwingUtilities.convertPoint(bar, 0, 0, glassPane));
+            }
+        } else if (comp instanceof Container) {
+            Container container = (Container) comp;
+            attach(container);
+            for (Component child : container.getComponents()) {
+                collectScrollBars(child);
+            }
+        }
+    }
+
+    private void attach(Component comp) {
+        for (ComponentListener l : comp.getComponentListeners()) {
+            if (l == invalidator) return;
+        }
+        comp.addComponentListener(invalidator);
+        if (comp instanceof Container && !(comp instanceof JScrollBar)) {
+            ((Container) comp).addContainerListener(structureInvalidator);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.print;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 项目打开后恢复上次的悬浮框布局，只显示占位窗口，不拖慢项目打开
+ * @Version: 1.0
+ */
+public class PanelLayoutRestoreActivity implements StartupActivity, DumbAware {
+    @Override
+    public void runActivity(Project project) {
+        if (GraphicsEnvironment.isHeadless()) return;
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!project.isDisposed()) FloatingPanelManager.getInstance(project).restoreLayout();
+        });
+    }
+}
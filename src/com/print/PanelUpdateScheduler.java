@@ -0,0 +1,114 @@
+package com.print;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框的更新节流：有焦点的悬浮框实时更新；没有焦点的悬浮框把文档同步和重绘登记到这里，
+ * 按设置的频率统一执行一次（同一个悬浮框在两次执行之间的多次修改只处理一次）。
+ * 悬浮框获得焦点时立即执行它登记的更新。节拍到了之后通过 Application 排队执行，
+ * 片段同步要在写操作中修改文档，裸的 Swing 定时器事件拿不到写意图锁。只在 EDT 上访问
+ * @Version: 1.0
+ */
+public final class PanelUpdateScheduler {
+    private static final PanelUpdateScheduler INSTANCE = new PanelUpdateScheduler();
+
+    /**
+     * 可延后执行的更新
+     */
+    public interface Target {
+        // 更新所属的组件，用于判断焦点和按窗口提前执行
+        Component getUpdateComponent();
+
+        void applyUpdate();
+    }
+
+    private final Set<Target> pending = new LinkedHashSet<>();
+    private final List<Target> running = new ArrayList<>();
+    private final Timer timer;
+    // 已排队但还没执行的 flushAll，避免执行变慢时同一批更新排队多次
+    private boolean flushQueued;
+
+    private PanelUpdateScheduler() {
+        timer = new Timer(100, e -> queueFlushAll());
+        timer.setCoalesce(true);
+    }
+
+    public static PanelUpdateScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 组件所在的窗口有焦点，或者关闭了节流时返回 true，调用方应直接更新
+     */
+    public static boolean isRealTime(Component component) {
+        if (ScreenMoveEditorSettings.current().unfocusedPanelRefreshRate <= 0) return true;
+        Window window = component instanceof Window ? (Window) component : SwingUtilities.getWindowAncestor(component);
+        return window == null || window.isFocused();
+    }
+
+    /**
+     * 登记一次延后更新，下一次节拍时执行
+     */
+    public void schedule(Target target) {
+        pending.add(target);
+        if (!timer.isRunning()) {
+            int rate = Math.max(1, ScreenMoveEditorSettings.current().unfocusedPanelRefreshRate);
+            timer.setDelay(Math.max(1, 1000 / rate));
+            timer.setInitialDelay(timer.getDelay());
+            timer.start();
+        }
+    }
+
+    /**
+     * 组件释放前调用，丢弃尚未执行的更新
+     */
+    public void cancel(Target target) {
+        pending.remove(target);
+    }
+
+    /**
+     * 窗口获得焦点时立即执行它的悬浮框登记的更新
+     */
+    public void flush(Window window) {
+        if (pending.isEmpty()) return;
+        for (Target target : pending) {
+            if (SwingUtilities.getWindowAncestor(target.getUpdateComponent()) == window) running.add(target);
+        }
+        pending.removeAll(running);
+        run();
+    }
+
+    private void queueFlushAll() {
+        if (flushQueued) return;
+        flushQueued = true;
+        ApplicationManager.getApplication().invokeLater(this::flushAll, ModalityState.any());
+    }
+
+    private void flushAll() {
+        flushQueued = false;
+        running.addAll(pending);
+        pending.clear();
+        run();
+        if (pending.isEmpty()) timer.stop();
+    }
+
+    private void run() {
+        try {
+            for (int i = 0; i < running.size(); i++) {
+                running.get(i).applyUpdate();
+            }
+        } finally {
+            running.clear();
+        }
+    }
+}
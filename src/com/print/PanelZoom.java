@@ -0,0 +1,168 @@
+package com.print;
+
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.colors.EditorColorsScheme;
+import com.intellij.openapi.editor.ex.EditorEx;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框的 Ctrl + 滚轮缩放：手势开始时给编辑器拍一张快照，手势过程中只按目标字号缩放显示快照，
+ * 停止滚动一小段时间后才真正改一次字号，编辑器只重新排版一次。字号只作用于这个编辑器，不改全局配色方案
+ * @Version: 1.0
+ */
+public class PanelZoom {
+    // 最后一次滚轮事件之后多久提交字号
+    private static final int COMMIT_DELAY_MILLIS = 180;
+
+    private final Editor editor;
+    private final Timer commitTimer;
+    private final Preview preview = new Preview();
+    private BufferedImage snapshot;
+    private double snapshotScale;
+    // 手势开始时的字号和累计的滚轮量（触控板会发送很多小数值）
+    private int startSize;
+    private double accumulated;
+    private int targetSize;
+    private boolean zooming;
+
+    public PanelZoom(Editor editor) {
+        this.editor = editor;
+        this.commitTimer = new Timer(COMMIT_DELAY_MILLIS, e -> commit());
+        this.commitTimer.setRepeats(false);
+    }
+
+    /**
+     * 直接设置字号（恢复状态时使用），不经过预览
+     */
+    public static void applyFontSize(Editor editor, int size) {
+        size = EditorFontCache.clampSize(size);
+        if (editor instanceof EditorEx) {
+            // 只改这个编辑器自己的字号
+            ((EditorEx) editor).setFontSize(size);
+        } else {
+            editor.getColorsScheme().setEditorFontSize(size);
+        }
+    }
+
+    /**
+     * 处理 Ctrl + 滚轮；不按 Ctrl 时不拦截，允许正常滚动
+     */
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        if (!e.isControlDown()) return;
+        e.consume();
+        if (!zooming) begin();
+        accumulated -= e.getPreciseWheelRotation();
+        int size = EditorFontCache.clampSize(startSize + (int) Math.round(accumulated));
+        if (size != targetSize) {
+            targetSize = size;
+            preview.repaint();
+        }
+        commitTimer.restart();
+    }
+
+    private void begin() {
+        JComponent component = editor.getComponent();
+        JRootPane rootPane = SwingUtilities.getRootPane(component);
+        startSize = editor.getColorsScheme().getEditorFontSize();
+        targetSize = startSize;
+        accumulated = 0;
+        if (rootPane == null || component.getWidth() <= 0 || component.getHeight() <= 0) {
+            // 还没显示出来，没有可预览的内容，直接按提交流程处理
+            zooming = true;
+            return;
+        }
+        takeSnapshot(component);
+        JLayeredPane layeredPane = rootPane.getLayeredPane();
+        preview.setBounds(SwingUtilities.convertRectangle(component.getParent(), component.getBounds(), layeredPane));
+        layeredPane.add(preview, JLayeredPane.PALETTE_LAYER);
+        // 预览盖住编辑器期间编辑器不再参与绘制
+        component.setVisible(false);
+        zooming = true;
+    }
+
+    // 按屏幕缩放比例拍快照，HiDPI 下预览也清晰；尺寸不变时复用上次的图
+    private void takeSnapshot(JComponent component) {
+        GraphicsConfiguration gc = component.getGraphicsConfiguration();
+        double scale = gc != null ? gc.getDefaultTransform().getScaleX() : 1;
+        int w = (int) Math.ceil(component.getWidth() * scale);
+        int h = (int) Math.ceil(component.getHeight() * scale);
+        if (snapshot == null || snapshot.getWidth() != w || snapshot.getHeight() != h) {
+            if (snapshot != null) snapshot.flush();
+            snapshot = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        }
+        snapshotScale = scale;
+        Graphics2D g = snapshot.createGraphics();
+        try {
+            g.scale(scale, scale);
+            component.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void commit() {
+        if (!zooming) return;
+        zooming = false;
+        Container layeredPane = preview.getParent();
+        if (layeredPane != null) {
+            layeredPane.remove(preview);
+            layeredPane.repaint(preview.getX(), preview.getY(), preview.getWidth(), preview.getHeight());
+        }
+        if (editor.isDisposed()) return;
+        editor.getComponent().setVisible(true);
+        if (targetSize != startSize) applyFontSize(editor, targetSize);
+    }
+
+    /**
+     * 编辑器释放前调用，丢弃未完成的手势和快照
+     */
+    public void dispose() {
+        commitTimer.stop();
+        if (zooming) {
+            zooming = false;
+            Container layeredPane = preview.getParent();
+            if (layeredPane != null) layeredPane.remove(preview);
+        }
+        if (snapshot != null) {
+            snapshot.flush();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * 缩放预览：把快照按新旧行高之比绘制，左上角对齐
+     */
+    private class Preview extends JComponent {
+        Preview() {
+            setOpaque(true);
+            // 手势过程中滚轮事件落在预览上，继续交给缩放处理
+            addMouseWheelListener(PanelZoom.this::mouseWheelMoved);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            EditorColorsScheme scheme = editor.getColorsScheme();
+            g.setColor(scheme.getDefaultBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            if (snapshot == null) return;
+            String family = scheme.getEditorFontName();
+            double factor = EditorFontCache.metrics(family, targetSize).getHeight()
+                    / (double) EditorFontCache.metrics(family, startSize).getHeight();
+            Graphics2D g2d = (Graphics2D) g;
+            AffineTransform old = g2d.getTransform();
+            Object oldHint = g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.scale(factor / snapshotScale, factor / snapshotScale);
+            g2d.drawImage(snapshot, 0, 0, null);
+            g2d.setTransform(old);
+            if (oldHint != null) g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldHint);
+        }
+    }
+}
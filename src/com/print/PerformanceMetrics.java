@@ -0,0 +1,180 @@
+package com.print;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 插件内置的性能统计：截屏、遮罩绘制、悬浮框创建等操作的耗时直方图，以及拖拽事件数、
+ * 悬浮框数量、每次截图的内存占用和大致占用内存。记录只做几次整数运算，不分配对象；报告文本由统计工具窗口显示或写入日志文件
+ * @Version: 1.0
+ */
+public final class PerformanceMetrics {
+    private static final PerformanceMetrics INSTANCE = new PerformanceMetrics();
+
+    // Robot 截取一块显示器的耗时（后台线程）
+    public final LatencyHistogram robotCapture = new LatencyHistogram();
+    // F4 到遮罩第一帧
+    public final LatencyHistogram firstFrame = new LatencyHistogram();
+    // 遮罩每帧 paintComponent 耗时
+    public final LatencyHistogram overlayFrame = new LatencyHistogram();
+    // 框选结束到悬浮框显示（createCodeEditorPanel）
+    public final LatencyHistogram panelOpen = new LatencyHistogram();
+    // 创建编辑器或参考视图（包括首次打开、唤醒和恢复布局）
+    public final LatencyHistogram editorCreate = new LatencyHistogram();
+
+    // 最近一次截图：截图像素峰值、开始和关闭时已用的堆、遮罩关闭后仍持有的字节数（只有复用池中的缓冲区）
+    private volatile long captureImageBytes = -1;
+    private volatile long captureHeapStartBytes;
+    private volatile long captureHeapEndBytes;
+    private volatile long captureRetainedBytes;
+
+    // 上一次生成报告时的拖拽计数，用于计算每秒事件数
+    private long lastSampleNanos;
+    private long lastRequests;
+    private long lastApplied;
+
+    private PerformanceMetrics() {
+    }
+
+    public static PerformanceMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public void reset() {
+        robotCapture.reset();
+        firstFrame.reset();
+        overlayFrame.reset();
+        panelOpen.reset();
+        editorCreate.reset();
+        captureImageBytes = -1;
+        lastSampleNanos = 0;
+    }
+
+    /**
+     * 当前已用的堆。截图开始和关闭时各取一次；不重置内存池的峰值，那是整个 JVM 共用的，IDE 诊断和分析工具也在读
+     */
+    public static long heapUsedBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public void recordCaptureMemory(long imageBytes, long heapStartBytes, long heapEndBytes, long retainedBytes) {
+        captureImageBytes = imageBytes;
+        captureHeapStartBytes = heapStartBytes;
+        captureHeapEndBytes = heapEndBytes;
+        captureRetainedBytes = retainedBytes;
+    }
+
+    /**
+     * 生成当前统计的文本报告。在 EDT 上调用；两次调用之间的拖拽事件换算为每秒数量
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(String.format("%-16s %8s %9s %9s %9s %9s%n", "", "count", "avg ms", "p50 ms", "p95 ms", "max ms"));
+        robotCapture.appendTo(sb, "robot capture");
+        firstFrame.appendTo(sb, "F4 first frame");
+        overlayFrame.appendTo(sb, "overlay frame");
+        panelOpen.appendTo(sb, "panel open");
+        editorCreate.appendTo(sb, "editor create");
+
+        BoundsCoalescer coalescer = BoundsCoalescer.getInstance();
+        long requests = coalescer.getRequestCount();
+        long applied = coalescer.getAppliedCount();
+        long now = System.nanoTime();
+        sb.append(String.format("%ndrag/resize events: %d, applied bounds updates: %d", requests, applied));
+        if (lastSampleNanos != 0 && now > lastSampleNanos) {
+            double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+            sb.append(String.format(" (%.0f/s events, %.0f/s applied)",
+                    (requests - lastRequests) / seconds, (applied - lastApplied) / seconds));
+        }
+        sb.append(System.lineSeparator());
+        if (captureImageBytes >= 0) {
+            sb.append(String.format("last capture: screenshots %.1f MB, heap used %.1f MB -> %.1f MB, retained after close %.1f MB (pooled)%n",
+                    captureImageBytes / 1048576.0, captureHeapStartBytes / 1048576.0,
+                    captureHeapEndBytes / 1048576.0, captureRetainedBytes / 1048576.0));
+        }
+        lastSampleNanos = now;
+        lastRequests = requests;
+        lastApplied = applied;
+
+        int panels = 0;
+        int editors = 0;
+        int live = 0;
+        long retained = 0;
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (project.isDisposed()) continue;
+            FloatingPanelManager manager = FloatingPanelManager.getInstance(project);
+            panels += manager.getPanelCount();
+            editors += manager.getLiveEditorCount();
+            live += manager.getLiveCount();
+            retained += manager.estimateRetainedBytes();
+        }
+        sb.append(String.format("floating panels: %d, live: %d (editors: %d, references: %d), hibernated: %d%n",
+                panels, live, editors, live - editors, panels - live));
+        Runtime runtime = Runtime.getRuntime();
+        sb.append(String.format("approx. retained by panels: %.1f KB, JVM heap used: %.1f MB / %.1f MB%n",
+                retained / 1024.0, (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0,
+                runtime.maxMemory() / 1048576.0));
+        return sb.toString();
+    }
+
+    /**
+     * 耗时直方图：按 2 的幂划分微秒区间，百分位取所在区间的上界。截屏在后台线程记录，所以记录方法加锁
+     */
+    public static final class LatencyHistogram {
+        // 第 i 个桶为 [2^i, 2^(i+1)) 微秒，最后一个桶收纳更长的耗时
+        private static final int BUCKETS = 32;
+
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        public synchronized void record(long nanos) {
+            if (nanos < 0) return;
+            long micros = nanos / 1000;
+            int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+            buckets[bucket]++;
+            count++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) maxNanos = nanos;
+        }
+
+        public synchronized void reset() {
+            for (int i = 0; i < BUCKETS; i++) buckets[i] = 0;
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        // 百分位的近似值（毫秒），不超过最大值
+        private double percentileMillis(double fraction) {
+            long target = (long) Math.ceil(count * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    long upperNanos = (1L << (i + 1)) * 1000;
+                    return Math.min(upperNanos, maxNanos) / 1_000_000.0;
+                }
+            }
+            return maxNanos / 1_000_000.0;
+        }
+
+        synchronized void appendTo(StringBuilder sb, String name) {
+            if (count == 0) {
+                sb.append(String.format("%-16s %8d %9s %9s %9s %9s%n", name, 0, "-", "-", "-", "-"));
+                return;
+            }
+            sb.append(String.format("%-16s %8d %9.2f %9.2f %9.2f %9.2f%n", name, count,
+                    totalNanos / 1_000_000.0 / count, percentileMillis(0.5), percentileMillis(0.95),
+                    maxNanos / 1_000_000.0));
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.print;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.IdeActions;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.command.undo.UndoManager;
+import com.intellij.openapi.command.undo.UndoUtil;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.RangeMarker;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.editor.event.VisibleAreaListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.TextEditor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 只包含原文件若干行的片段文档：悬浮框编辑器只对这几行排版，不再为整个大文件计算布局和软换行。
+ * 片段与原文档双向同步，在悬浮框里编辑直接写回原文档；滚动到片段顶部或底部时按边距行数向外扩展。
+ * 悬浮框没有焦点时原文档的修改不立即同步，由 PanelUpdateScheduler 按节拍把片段与原文档的差异一次补上。
+ * 开启节流时完整编辑器也使用覆盖整个文件的片段（wholeDocument），只为借用这种延后同步。
+ * 片段文档本身不记撤销，悬浮框里的撤销/重做转给原文件的主编辑器执行（需要该文件在编辑器标签页中打开）
+ * @Version: 1.0
+ */
+public class RangeLimitedDocument implements Disposable {
+    private final Document original;
+    private final Document fragment;
+    private final int marginLines;
+    // 覆盖整个原文档，范围失效时重新取整个文档
+    private final boolean whole;
+    // 片段在原文档中的范围，两端贪婪，在边界处输入的字符也算片段内
+    private RangeMarker range;
+    // 正在把一侧的修改同步到另一侧，防止来回触发
+    private boolean syncing;
+    // 原文档修改前记录的片段内偏移，-1 表示修改跨越片段边界，需要整体重新同步
+    private int pendingLocalOffset;
+    private boolean pendingOutside;
+    private boolean extendScheduled;
+    // 显示片段的编辑器，attach 之前为 null（此时总是实时同步）
+    private Editor editor;
+    // 原文档有尚未同步到片段的修改
+    private boolean stale;
+
+    private final PanelUpdateScheduler.Target syncTarget = new PanelUpdateScheduler.Target() {
+        @Override
+        public Component getUpdateComponent() {
+            return editor.getComponent();
+        }
+
+        @Override
+        public void applyUpdate() {
+            resync();
+        }
+    };
+
+    private final DocumentListener originalListener = new DocumentListener() {
+        @Override
+        public void beforeDocumentChange(DocumentEvent e) {
+            if (syncing) return;
+            int start = range.getStartOffset();
+            int end = range.getEndOffset();
+            int changeEnd = e.getOffset() + e.getOldLength();
+            pendingOutside = changeEnd < start || e.getOffset() > end;
+            pendingLocalOffset = e.getOffset() >= start && changeEnd <= end ? e.getOffset() - start : -1;
+        }
+
+        @Override
+        public void documentChanged(DocumentEvent e) {
+            // 片段外的修改只会让范围整体平移，RangeMarker 自己会处理
+            if (syncing || pendingOutside) return;
+            if (!range.isValid()) {
+                // 片段所在的文本被整体删除，退化为删除位置的空范围；整个文件的片段重新覆盖整个文档
+                range = whole ? createRange(0, original.getTextLength()) : createRange(e.getOffset(), e.getOffset());
+            }
+            // 没有焦点的悬浮框不跟着每次按键排版，等节拍到了一次补上
+            if (stale || (editor != null && !PanelUpdateScheduler.isRealTime(editor.getComponent()))) {
+                if (!stale) {
+                    stale = true;
+                    PanelUpdateScheduler.getInstance().schedule(syncTarget);
+                }
+                return;
+            }
+            syncing = true;
+            try {
+                if (pendingLocalOffset >= 0) {
+                    fragment.replaceString(pendingLocalOffset, pendingLocalOffset + e.getOldLength(), e.getNewFragment());
+                } else {
+                    fragment.setText(original.getCharsSequence().subSequence(range.getStartOffset(), range.getEndOffset()));
+                }
+            } finally {
+                syncing = false;
+            }
+        }
+    };
+
+    private final DocumentListener fragmentListener = new DocumentListener() {
+        @Override
+        public void documentChanged(DocumentEvent e) {
+            if (syncing) return;
+            // 悬浮框里的输入已经在写操作和命令中，直接写回原文档，撤销记录也落在原文档上
+            int offset = range.getStartOffset() + e.getOffset();
+            syncing = true;
+            try {
+                original.replaceString(offset, offset + e.getOldLength(), e.getNewFragment());
+            } finally {
+                syncing = false;
+            }
+        }
+    };
+
+    /**
+     * @param firstLine   片段第一行（原文档行号），调用方已把选区上方的边距算进去
+     * @param lastLine    片段最后一行（原文档行号）
+     * @param marginLines 滚动到边缘时每次扩展的行数
+     */
+    public RangeLimitedDocument(Document original, int firstLine, int lastLine, int marginLines) {
+        this(original, firstLine, lastLine, marginLines, false);
+    }
+
+    /**
+     * 覆盖整个原文档的片段，供完整编辑器的悬浮框在没有焦点时延后同步
+     */
+    public static RangeLimitedDocument wholeDocument(Document original) {
+        return new RangeLimitedDocument(original, 0, Integer.MAX_VALUE, 1, true);
+    }
+
+    private RangeLimitedDocument(Document original, int firstLine, int lastLine, int marginLines, boolean whole) {
+        this.original = original;
+        this.marginLines = Math.max(1, marginLines);
+        this.whole = whole;
+        int maxLine = Math.max(0, original.getLineCount() - 1);
+        int first = clamp(firstLine, 0, maxLine);
+        int last = clamp(lastLine, first, maxLine);
+        int start = whole ? 0 : original.getLineStartOffset(first);
+        int end = whole ? original.getTextLength() : original.getLineEndOffset(last);
+        this.range = createRange(start, end);
+        this.fragment = EditorFactory.getInstance().createDocument(original.getCharsSequence().subSequence(start, end));
+        // 片段文档只是原文档的视图，撤销交给原文档，避免同一次修改在两个文档上各记一次
+        UndoUtil.disableUndoFor(fragment);
+        if (!original.isWritable()) fragment.setReadOnly(true);
+        original.addDocumentListener(originalListener, this);
+        fragment.addDocumentListener(fragmentListener, this);
+    }
+
+    public Document getFragment() {
+        return fragment;
+    }
+
+    /**
+     * 片段在原文档中的起止偏移
+     */
+    public int getStartOffset() {
+        return range.getStartOffset();
+    }
+
+    public int getEndOffset() {
+        return range.getEndOffset();
+    }
+
+    /**
+     * 片段第一行在原文档中的行号，用于原文档行号与片段行号互相换算
+     */
+    public int getStartLine() {
+        return original.getLineNumber(range.getStartOffset());
+    }
+
+    public int getEndLine() {
+        return original.getLineNumber(range.getEndOffset());
+    }
+
+    /**
+     * 编辑器滚动到片段顶部或底部时向外扩展；扩展在下一轮事件中完成，不在滚动回调里直接改文档
+     */
+    public void attach(Editor editor) {
+        this.editor = editor;
+        // 在悬浮框里输入之前先补上延后的同步，保证片段偏移与原文档一致
+        editor.getContentComponent().addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusGained(FocusEvent e) {
+                resync();
+            }
+        });
+        VisibleAreaListener listener = e -> {
+            if (extendScheduled || editor.isDisposed()) return;
+            Rectangle visible = e.getNewRectangle();
+            if (visible == null || visible.height <= 0) return;
+            boolean atTop = visible.y <= 0 && range.getStartOffset() > 0;
+            int contentHeight = editor.getContentComponent().getHeight();
+            boolean atBottom = visible.y + visible.height >= contentHeight
+                    && range.getEndOffset() < original.getTextLength();
+            if (!atTop && !atBottom) return;
+            extendScheduled = true;
+            // 扩展要在写操作中修改片段，通过 Application 排队才能拿到写意图锁
+            ApplicationManager.getApplication().invokeLater(() -> {
+                extendScheduled = false;
+                if (!editor.isDisposed() && range.isValid()) extend(editor, atTop, atBottom);
+            }, ModalityState.any());
+        };
+        editor.getScrollingModel().addVisibleAreaListener(listener, this);
+        redirectUndo(editor, false);
+        redirectUndo(editor, true);
+    }
+
+    // 撤销记录在原文档上：悬浮框里的撤销/重做快捷键改为对原文件的主编辑器执行，原文档恢复后再同步回片段
+    private void redirectUndo(Editor editor, boolean redo) {
+        AnAction platformAction = ActionManager.getInstance()
+                .getAction(redo ? IdeActions.ACTION_REDO : IdeActions.ACTION_UNDO);
+        if (platformAction == null) return;
+        new AnAction() {
+            @Override
+            public void actionPerformed(AnActionEvent e) {
+                Project project = editor.getProject();
+                VirtualFile file = FileDocumentManager.getInstance().getFile(original);
+                if (project == null || project.isDisposed() || file == null) return;
+                FileEditor main = findMainEditor(project, file);
+                if (main == null) return;
+                UndoManager undoManager = UndoManager.getInstance(project);
+                if (redo) {
+                    if (undoManager.isRedoAvailable(main)) undoManager.redo(main);
+                } else if (undoManager.isUndoAvailable(main)) {
+                    undoManager.undo(main);
+                }
+            }
+        }.registerCustomShortcutSet(platformAction.getShortcutSet(), editor.getContentComponent());
+    }
+
+    // 显示原文档的文本编辑器（不是悬浮框自己）
+    private FileEditor findMainEditor(Project project, VirtualFile file) {
+        for (FileEditor fileEditor : FileEditorManager.getInstance(project).getEditors(file)) {
+            if (fileEditor instanceof TextEditor && ((TextEditor) fileEditor).getEditor().getDocument() == original) {
+                return fileEditor;
+            }
+        }
+        return null;
+    }
+
+    private void extend(Editor editor, boolean up, boolean down) {
+        resync();
+        int firstLine = original.getLineNumber(range.getStartOffset());
+        int lastLine = original.getLineNumber(range.getEndOffset());
+        int newFirst = up ? Math.max(0, firstLine - marginLines) : firstLine;
+        int newLast = down ? Math.min(original.getLineCount() - 1, lastLine + marginLines) : lastLine;
+        int oldStart = range.getStartOffset();
+        int oldEnd = range.getEndOffset();
+        int newStart = original.getLineStartOffset(newFirst);
+        int newEnd = original.getLineEndOffset(newLast);
+        if (newStart == oldStart && newEnd == oldEnd) return;
+
+        CharSequence text = original.getCharsSequence();
+        CharSequence above = text.subSequence(newStart, oldStart);
+        CharSequence below = text.subSequence(oldEnd, newEnd);
+        int scrollOffset = editor.getScrollingModel().getVerticalScrollOffset();
+        syncing = true;
+        try {
+            ApplicationManager.getApplication().runWriteAction(() ->
+                    CommandProcessor.getInstance().runUndoTransparentAction(() -> {
+                        if (below.length() > 0) fragment.insertString(fragment.getTextLength(), below);
+                        if (above.length() > 0) fragment.insertString(0, above);
+                    }));
+        } finally {
+            syncing = false;
+        }
+        range.dispose();
+        range = createRange(newStart, newEnd);
+        // 在顶部插入的行把内容往下推，保持用户正在看的那一行不动
+        if (firstLine != newFirst) {
+            editor.getScrollingModel().scrollVertically(scrollOffset + (firstLine - newFirst) * editor.getLineHeight());
+        }
+    }
+
+    /**
+     * 把延后的修改同步到片段：只替换首尾相同部分之间的文字，光标和滚动位置不会跳动
+     */
+    public void resync() {
+        if (!stale) return;
+        stale = false;
+        PanelUpdateScheduler.getInstance().cancel(syncTarget);
+        if (!range.isValid()) return;
+        CharSequence target = original.getCharsSequence().subSequence(range.getStartOffset(), range.getEndOffset());
+        CharSequence current = fragment.getCharsSequence();
+        int targetLength = target.length();
+        int currentLength = current.length();
+        int max = Math.min(targetLength, currentLength);
+        int prefix = 0;
+        while (prefix < max && target.charAt(prefix) == current.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < max - prefix
+                && target.charAt(targetLength - 1 - suffix) == current.charAt(currentLength - 1 - suffix)) suffix++;
+        if (prefix == targetLength && prefix == currentLength) return;
+        CharSequence replacement = target.subSequence(prefix, targetLength - suffix);
+        int replaceEnd = currentLength - suffix;
+        final int replaceStart = prefix;
+        syncing = true;
+        try {
+            ApplicationManager.getApplication().runWriteAction(() ->
+                    CommandProcessor.getInstance().runUndoTransparentAction(() ->
+                            fragment.replaceString(replaceStart, replaceEnd, replacement)));
+        } finally {
+            syncing = false;
+        }
+        // 延后期间共享高亮按原文档偏移取色，修改点之后的行可能画错了颜色，同步后整体重绘
+        if (editor != null && !editor.isDisposed()) editor.getContentComponent().repaint();
+    }
+
+    private RangeMarker createRange(int start, int end) {
+        RangeMarker marker = original.createRangeMarker(start, end);
+        marker.setGreedyToLeft(true);
+        marker.setGreedyToRight(true);
+        return marker;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    @Override
+    public void dispose() {
+        // 监听器随 this 一起注销
+        PanelUpdateScheduler.getInstance().cancel(syncTarget);
+        range.dispose();
+    }
+}
@@ -0,0 +1,323 @@
+package com.print;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.RangeMarker;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.colors.EditorColorsScheme;
+import com.intellij.openapi.editor.highlighter.EditorHighlighter;
+import com.intellij.openapi.editor.highlighter.HighlighterIterator;
+import com.intellij.openapi.editor.markup.TextAttributes;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 只读参考视图：不创建 Editor，只把选中的几行按语法颜色绘制出来。
+ * 文字和着色结果（按颜色和样式切分的片段）缓存在数组里，只有这几行内的文档或词法结果变化时才重建；
+ * 颜色来自 SharedHighlighters，不单独做词法分析。双击时回调 onPromote 换成真正的编辑器。只在 EDT 上访问
+ * @Version: 1.0
+ */
+public class ReferenceView extends JComponent implements Scrollable, SharedHighlighters.Client,
+        PanelUpdateScheduler.Target {
+    private static final int PADDING = 6;
+    private static final int TAB_SIZE = 4;
+
+    private final Document document;
+    private final RangeMarker range;
+    private final EditorHighlighter highlighter;
+    private final int fontSize;
+
+    // 缓存：范围内的文字、各行起点（相对范围起点）、着色片段
+    private char[] chars = new char[0];
+    private int length;
+    private int[] lineStarts = new int[16];
+    private int lineCount;
+    private int[] runStart = new int[64];
+    private int[] runEnd = new int[64];
+    private int[] runStyle = new int[64];
+    private Color[] runColor = new Color[64];
+    private int runCount;
+    private int maxLineWidth;
+    private boolean dirty = true;
+    private final Rectangle clip = new Rectangle();
+
+    /**
+     * @param firstLine 第一行（原文档行号）
+     * @param lastLine  最后一行（原文档行号）
+     * @param fontSize  字号，0 表示使用全局字号
+     */
+    public ReferenceView(Project project, VirtualFile file, Document document, int firstLine, int lastLine,
+                         int fontSize, Runnable onPromote) {
+        this.document = document;
+        this.fontSize = fontSize;
+        int maxLine = Math.max(0, document.getLineCount() - 1);
+        int first = Math.max(0, Math.min(firstLine, maxLine));
+        int last = Math.max(first, Math.min(lastLine, maxLine));
+        this.range = document.createRangeMarker(document.getLineStartOffset(first), document.getLineEndOffset(last));
+        this.range.setGreedyToLeft(true);
+        this.range.setGreedyToRight(true);
+        this.highlighter = SharedHighlighters.share(project, file, document, this);
+        setOpaque(true);
+        setToolTipText(ScreenMoveEditorBundle.message("reference.promote.hint"));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && SwingUtilities.isLeftMouseButton(e)) onPromote.run();
+            }
+        });
+    }
+
+    public int getStartLine() {
+        return range.isValid() ? document.getLineNumber(range.getStartOffset()) : 0;
+    }
+
+    public int getEndLine() {
+        return range.isValid() ? document.getLineNumber(range.getEndOffset()) : 0;
+    }
+
+    public int getLineHeight() {
+        return metrics(Font.PLAIN).getHeight();
+    }
+
+    /**
+     * 缓存数组占用的字节数
+     */
+    public long estimateRetainedBytes() {
+        return chars.length * 2L + (lineStarts.length + runStart.length * 3L) * 4 + runColor.length * 8L;
+    }
+
+    // 范围内有变化才重建缓存；范围外的修改只会让 RangeMarker 平移
+    @Override
+    public void highlightingChanged(int start, int end) {
+        if (range.isValid() && (end < range.getStartOffset() || start > range.getEndOffset())) return;
+        dirty = true;
+        // 没有焦点时按节拍合并重绘
+        if (PanelUpdateScheduler.isRealTime(this)) {
+            applyUpdate();
+        } else {
+            PanelUpdateScheduler.getInstance().schedule(this);
+        }
+    }
+
+    @Override
+    public Component getUpdateComponent() {
+        return this;
+    }
+
+    @Override
+    public void applyUpdate() {
+        revalidate();
+        repaint();
+    }
+
+    public void dispose() {
+        PanelUpdateScheduler.getInstance().cancel(this);
+        SharedHighlighters.release(this);
+        range.dispose();
+    }
+
+    private EditorColorsScheme scheme() {
+        return EditorColorsManager.getInstance().getGlobalScheme();
+    }
+
+    private FontMetrics metrics(int style) {
+        EditorColorsScheme scheme = scheme();
+        return EditorFontCache.metrics(scheme.getEditorFontName(), style,
+                fontSize > 0 ? fontSize : scheme.getEditorFontSize());
+    }
+
+    private void ensureBuilt() {
+        if (!dirty) return;
+        dirty = false;
+        int start = range.isValid() ? range.getStartOffset() : 0;
+        int end = range.isValid() ? range.getEndOffset() : 0;
+        CharSequence text = document.getCharsSequence();
+        length = end - start;
+        if (chars.length < length) chars = new char[length];
+        lineCount = 1;
+        lineStarts[0] = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(start + i);
+            chars[i] = c;
+            if (c == '\n') {
+                if (lineCount == lineStarts.length) lineStarts = grow(lineStarts);
+                lineStarts[lineCount++] = i + 1;
+            }
+        }
+
+        // 按词法结果切分颜色片段，相邻同色同样式的片段合并
+        runCount = 0;
+        Color defaultForeground = scheme().getDefaultForeground();
+        if (length > 0) {
+            HighlighterIterator it = highlighter.createIterator(start);
+            while (!it.atEnd() && it.getStart() < end) {
+                int s = Math.max(start, it.getStart()) - start;
+                int e = Math.min(end, it.getEnd()) - start;
+                TextAttributes attributes = it.getTextAttributes();
+                Color color = attributes != null && attributes.getForegroundColor() != null
+                        ? attributes.getForegroundColor() : defaultForeground;
+                int style = attributes != null ? attributes.getFontType() : Font.PLAIN;
+                if (e > s) addRun(s, e, color, style);
+                it.advance();
+            }
+        }
+
+        FontMetrics fm = metrics(Font.PLAIN);
+        maxLineWidth = 0;
+        for (int line = 0; line < lineCount; line++) {
+            int x = advance(fm, lineStarts[line], lineEnd(line), PADDING);
+            maxLineWidth = Math.max(maxLineWidth, x);
+        }
+    }
+
+    private void addRun(int s, int e, Color color, int style) {
+        if (runCount > 0 && runEnd[runCount - 1] == s && runStyle[runCount - 1] == style
+                && runColor[runCount - 1].equals(color)) {
+            runEnd[runCount - 1] = e;
+            return;
+        }
+        if (runCount == runStart.length) {
+            runStart = grow(runStart);
+            runEnd = grow(runEnd);
+            runStyle = grow(runStyle);
+            Color[] colors = new Color[runColor.length * 2];
+            System.arraycopy(runColor, 0, colors, 0, runColor.length);
+            runColor = colors;
+        }
+        runStart[runCount] = s;
+        runEnd[runCount] = e;
+        runStyle[runCount] = style;
+        runColor[runCount] = color;
+        runCount++;
+    }
+
+    private static int[] grow(int[] array) {
+        int[] grown = new int[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    // 行尾（不含换行符）
+    private int lineEnd(int line) {
+        return line + 1 < lineCount ? lineStarts[line + 1] - 1 : length;
+    }
+
+    // 计算或绘制 [from, to) 的文字，返回结束时的 x；g 为 null 时只计算宽度
+    private int drawSegment(Graphics g, FontMetrics fm, int from, int to, int x) {
+        int tabWidth = fm.charWidth(' ') * TAB_SIZE;
+        int pos = from;
+        while (pos < to) {
+            int tab = pos;
+            while (tab < to && chars[tab] != '\t') tab++;
+            if (tab > pos) {
+                if (g != null) g.drawChars(chars, pos, tab - pos, x, 0);
+                x += fm.charsWidth(chars, pos, tab - pos);
+            }
+            if (tab < to) {
+                x = PADDING + ((x - PADDING) / tabWidth + 1) * tabWidth;
+                tab++;
+            }
+            pos = tab;
+        }
+        return x;
+    }
+
+    private int advance(FontMetrics fm, int from, int to, int x) {
+        return drawSegment(null, fm, from, to, x);
+    }
+
+    // 第一个结束位置大于 offset 的片段
+    private int findRun(int offset) {
+        int lo = 0, hi = runCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (runEnd[mid] <= offset) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        ensureBuilt();
+        EditorColorsScheme scheme = scheme();
+        g.getClipBounds(clip);
+        g.setColor(scheme.getDefaultBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        FontMetrics plain = metrics(Font.PLAIN);
+        int lineHeight = plain.getHeight();
+        int ascent = plain.getAscent();
+        int firstLine = Math.max(0, (clip.y - PADDING) / lineHeight);
+        int lastLine = Math.min(lineCount - 1, (clip.y + clip.height - PADDING) / lineHeight);
+        Color defaultForeground = scheme.getDefaultForeground();
+        Graphics2D g2d = (Graphics2D) g;
+        for (int line = firstLine; line <= lastLine; line++) {
+            int baseline = PADDING + line * lineHeight + ascent;
+            int pos = lineStarts[line];
+            int end = lineEnd(line);
+            int run = findRun(pos);
+            int x = PADDING;
+            g2d.translate(0, baseline);
+            while (pos < end) {
+                Color color = defaultForeground;
+                int style = Font.PLAIN;
+                int segmentEnd = end;
+                if (run < runCount && runStart[run] <= pos) {
+                    color = runColor[run];
+                    style = runStyle[run];
+                    segmentEnd = Math.min(end, runEnd[run]);
+                    run++;
+                } else if (run < runCount) {
+                    segmentEnd = Math.min(end, runStart[run]);
+                }
+                FontMetrics fm = style == Font.PLAIN ? plain : metrics(style);
+                g.setFont(fm.getFont());
+                g.setColor(color);
+                x = drawSegment(g, fm, pos, segmentEnd, x);
+                pos = segmentEnd;
+            }
+            g2d.translate(0, -baseline);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        ensureBuilt();
+        return new Dimension(maxLineWidth + PADDING, lineCount * getLineHeight() + PADDING * 2);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? getLineHeight() : metrics(Font.PLAIN).charWidth(' ');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    // 视图比窗口小时铺满窗口，背景色一致
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = getParent();
+        return parent != null && parent.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent != null && parent.getHeight() > getPreferredSize().height;
+    }
+}
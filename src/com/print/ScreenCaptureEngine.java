@@ -0,0 +1,370 @@
+package com.print;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.MultiResolutionImage;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 按显示器截屏：先只截光标所在的显示器，选区拖到其他显示器时再补截，
+ * 截图按显示器的物理分辨率保存（HiDPI），显示器越多也不会一次性分配整个虚拟桌面的缓冲区。
+ * 截屏和预合成都在后台线程执行，EDT 只负责接收结果。
+ * 截图统一为不透明的 INT_RGB；遮罩关闭时丢掉所有截图引用，只把变暗副本的缓冲区按尺寸留作下次复用，
+ * 缓冲区用软引用持有，内存紧张时可以被回收
+ * @Version: 1.0
+ */
+public class ScreenCaptureEngine {
+    private static final Color GAP_COLOR = new Color(0, 0, 0);
+    // 截图就绪前的占位遮罩：几乎透明，窗口自身的半透明背景负责变暗，选区内显示实时桌面
+    private static final Color PLACEHOLDER_SELECTION = new Color(0, 0, 0, 1);
+    // 复用缓冲区的数量上限，一般不会同时有更多不同尺寸的显示器
+    private static final int MAX_POOLED_BUFFERS = 4;
+
+    /**
+     * 截屏进度回调，全部在 EDT 上调用
+     */
+    public interface Listener {
+        // 显示器像素已抓取，遮罩窗口可以覆盖到该显示器上（此时只能绘制占位遮罩）
+        void screenCovered(Screen screen);
+
+        // 预合成背景已就绪，替换占位遮罩
+        void screenReady(Screen screen);
+
+        void captureFailed(Throwable t);
+    }
+
+    /**
+     * 单个显示器的截图状态
+     */
+    public static class Screen {
+        final GraphicsDevice device;
+        // 显示器在虚拟桌面中的逻辑坐标
+        final Rectangle bounds;
+        boolean requested;
+        boolean covered;
+        OverlayBackground background;
+
+        Screen(GraphicsDevice device, Rectangle bounds) {
+            this.device = device;
+            this.bounds = bounds;
+        }
+
+        public Rectangle getBounds() {
+            return bounds;
+        }
+
+        public boolean isCaptured() {
+            return background != null;
+        }
+    }
+
+    private final Robot robot;
+    private final Executor executor;
+    private final List<Screen> screens = new ArrayList<>();
+    private final Rectangle coveredBounds = new Rectangle();
+    private Listener listener;
+    // 已覆盖的显示器能否铺满 coveredBounds，不能时需要先给空隙填色
+    private boolean coveredTilesBounds = true;
+    // 每次 begin/flush 递增，后台截图完成时据此丢弃上一次截图的结果
+    private int session;
+    private boolean active;
+    // 可复用的变暗缓冲区，后台线程取用、EDT 归还，访问时对 pool 加锁
+    private final List<SoftReference<BufferedImage>> pool = new ArrayList<>();
+    // 本次截图中同时持有的截图像素字节数的最大值
+    private long peakImageBytes;
+
+    public ScreenCaptureEngine(Executor executor) throws AWTException {
+        this.robot = new Robot();
+        this.executor = executor;
+    }
+
+    /**
+     * 开始一次新的截图；显示器可能在两次截图之间插拔，所以每次重新枚举
+     */
+    public void begin(Listener listener) {
+        flush();
+        this.listener = listener;
+        this.active = true;
+        screens.clear();
+        coveredBounds.setBounds(0, 0, 0, 0);
+        coveredTilesBounds = true;
+        peakImageBytes = 0;
+        for (GraphicsDevice device : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+            screens.add(new Screen(device, device.getDefaultConfiguration().getBounds()));
+        }
+    }
+
+    /**
+     * 返回包含该点的显示器，都不包含时返回最近的一个
+     */
+    public Screen screenAt(Point screenPoint) {
+        return screenAt(screenPoint.x, screenPoint.y);
+    }
+
+    public Screen screenAt(int screenX, int screenY) {
+        Screen nearest = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < screens.size(); i++) {
+            Screen screen = screens.get(i);
+            Rectangle b = screen.bounds;
+            if (b.contains(screenX, screenY)) return screen;
+            long dx = Math.max(0, Math.max(b.x - screenX, screenX - (b.x + b.width)));
+            long dy = Math.max(0, Math.max(b.y - screenY, screenY - (b.y + b.height)));
+            long distance = dx * dx + dy * dy;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = screen;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * 在后台截取光标所在的显示器，作为本次截图的第一块
+     */
+    public Screen captureUnderCursor() {
+        PointerInfo pointer = MouseInfo.getPointerInfo();
+        Point location = pointer != null ? pointer.getLocation() : new Point(0, 0);
+        Screen screen = screenAt(location);
+        captureAsync(screen);
+        return screen;
+    }
+
+    /**
+     * 确保 screenPoint 所在的显示器已经开始截取
+     *
+     * @return 是否新发起了截取
+     */
+    public boolean ensureCaptured(Point screenPoint) {
+        Screen screen = screenAt(screenPoint);
+        if (screen == null || screen.requested) return false;
+        captureAsync(screen);
+        return true;
+    }
+
+    private void captureAsync(Screen screen) {
+        if (screen == null || screen.requested) return;
+        screen.requested = true;
+        final int captureSession = session;
+        final Listener captureListener = listener;
+        executor.execute(() -> {
+            try {
+                long captureStart = System.nanoTime();
+                Object captureEvent = FlightEvents.beginScreenCapture();
+                BufferedImage raw = captureNative(screen.bounds);
+                FlightEvents.endScreenCapture(captureEvent, screen.bounds, raw.getWidth(), raw.getHeight());
+                PerformanceMetrics.getInstance().robotCapture.record(System.nanoTime() - captureStart);
+                SwingUtilities.invokeLater(() -> {
+                    if (!isCurrent(captureSession)) return;
+                    if (cover(screen)) captureListener.screenCovered(screen);
+                });
+
+                OverlayBackground background = new OverlayBackground(raw, screen.bounds.width, screen.bounds.height,
+                        acquireBuffer(raw.getWidth(), raw.getHeight()));
+                SwingUtilities.invokeLater(() -> {
+                    if (!isCurrent(captureSession)) {
+                        recycleBuffer(background.flush());
+                        return;
+                    }
+                    screen.background = background;
+                    peakImageBytes = Math.max(peakImageBytes, getImageBytes());
+                    captureListener.screenReady(screen);
+                });
+            } catch (Throwable t) {
+                SwingUtilities.invokeLater(() -> {
+                    if (isCurrent(captureSession)) captureListener.captureFailed(t);
+                });
+            }
+        });
+    }
+
+    private boolean isCurrent(int captureSession) {
+        return active && captureSession == session;
+    }
+
+    /**
+     * 标记显示器已抓取。遮罩窗口按已覆盖显示器的外接矩形设置大小，非矩形排列（L 形、错位）时
+     * 外接矩形会伸到其他显示器上；这些显示器必须先截取，否则窗口会盖住它们，之后再截就会截到遮罩本身。
+     * 所以外接矩形碰到尚未抓取的显示器时先补截它们，暂不扩大窗口
+     *
+     * @return coveredBounds 是否已更新，窗口可以扩展
+     */
+    private boolean cover(Screen screen) {
+        screen.covered = true;
+        long tiledArea = 0;
+        Rectangle union = null;
+        for (Screen s : screens) {
+            if (!s.covered) continue;
+            union = union == null ? new Rectangle(s.bounds) : union.union(s.bounds);
+            tiledArea += (long) s.bounds.width * s.bounds.height;
+        }
+        boolean pending = false;
+        for (Screen s : screens) {
+            if (s.covered || !s.bounds.intersects(union)) continue;
+            pending = true;
+            captureAsync(s);
+        }
+        if (pending) return false;
+        coveredBounds.setBounds(union);
+        coveredTilesBounds = tiledArea >= (long) union.width * union.height;
+        return true;
+    }
+
+    // 优先取物理分辨率的截图，老 JDK 没有多分辨率截图接口时退回逻辑分辨率
+    private BufferedImage captureNative(Rectangle bounds) {
+        try {
+            MultiResolutionImage image = robot.createMultiResolutionScreenCapture(bounds);
+            Image best = null;
+            for (Image variant : image.getResolutionVariants()) {
+                if (best == null || variant.getWidth(null) > best.getWidth(null)) best = variant;
+            }
+            if (best instanceof BufferedImage && ((BufferedImage) best).getType() == BufferedImage.TYPE_INT_RGB) {
+                return (BufferedImage) best;
+            }
+            // 其他格式（带 alpha 或按字节排列）转成不透明的 INT_RGB，绘制时走最快的拷贝路径
+            if (best != null) {
+                BufferedImage copy = new BufferedImage(best.getWidth(null), best.getHeight(null), BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = copy.createGraphics();
+                g.drawImage(best, 0, 0, null);
+                g.dispose();
+                return copy;
+            }
+        } catch (LinkageError ignore) {
+        }
+        return robot.createScreenCapture(bounds);
+    }
+
+    /**
+     * 已覆盖显示器的并集（虚拟桌面坐标），遮罩窗口按它设置位置和大小
+     */
+    public Rectangle getCoveredBounds() {
+        return new Rectangle(coveredBounds);
+    }
+
+    /**
+     * 以 coveredBounds 左上角为原点绘制所有已覆盖的显示器
+     */
+    public void paint(Graphics g, Component target, int selX, int selY, int selW, int selH) {
+        if (!coveredTilesBounds) {
+            g.setColor(GAP_COLOR);
+            g.fillRect(0, 0, coveredBounds.width, coveredBounds.height);
+        }
+        for (int i = 0; i < screens.size(); i++) {
+            Screen screen = screens.get(i);
+            if (!screen.covered) continue;
+            int originX = screen.bounds.x - coveredBounds.x;
+            int originY = screen.bounds.y - coveredBounds.y;
+            if (screen.background != null) {
+                screen.background.paint(g, target, originX, originY, selX, selY, selW, selH);
+            } else {
+                paintPlaceholder(g, originX, originY, screen.bounds, selX, selY, selW, selH);
+            }
+        }
+    }
+
+    // 占位阶段依靠窗口的半透明背景变暗，选区内改为近乎透明以露出实时桌面
+    private void paintPlaceholder(Graphics g, int originX, int originY, Rectangle bounds,
+                                  int selX, int selY, int selW, int selH) {
+        int x1 = Math.max(originX, selX);
+        int y1 = Math.max(originY, selY);
+        int x2 = Math.min(selX + selW, originX + bounds.width);
+        int y2 = Math.min(selY + selH, originY + bounds.height);
+        if (x2 <= x1 || y2 <= y1) return;
+        Graphics2D g2d = (Graphics2D) g;
+        Composite oldComposite = g2d.getComposite();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setColor(PLACEHOLDER_SELECTION);
+        g2d.fillRect(x1, y1, x2 - x1, y2 - y1);
+        g2d.setComposite(oldComposite);
+    }
+
+    // 取一块同尺寸的缓冲区，取出后从池中移除，保证只被一次截图使用
+    private BufferedImage acquireBuffer(int width, int height) {
+        synchronized (pool) {
+            for (Iterator<SoftReference<BufferedImage>> it = pool.iterator(); it.hasNext(); ) {
+                BufferedImage image = it.next().get();
+                if (image == null) {
+                    it.remove();
+                } else if (image.getWidth() == width && image.getHeight() == height) {
+                    it.remove();
+                    return image;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void recycleBuffer(BufferedImage image) {
+        if (image == null) return;
+        synchronized (pool) {
+            pool.removeIf(ref -> ref.get() == null);
+            if (pool.size() >= MAX_POOLED_BUFFERS) pool.remove(0);
+            pool.add(new SoftReference<>(image));
+        }
+    }
+
+    /**
+     * 当前持有的截图和变暗副本的字节数
+     */
+    public long getImageBytes() {
+        long bytes = 0;
+        for (Screen screen : screens) {
+            if (screen.background != null) bytes += screen.background.getImageBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 本次截图期间同时持有的截图字节数的最大值
+     */
+    public long getPeakImageBytes() {
+        return peakImageBytes;
+    }
+
+    /**
+     * 遮罩关闭后仍留在复用池中的缓冲区字节数（软引用，可被回收）
+     */
+    public long getPooledBytes() {
+        long bytes = 0;
+        synchronized (pool) {
+            for (SoftReference<BufferedImage> ref : pool) {
+                bytes += OverlayBackground.imageBytes(ref.get());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 遮罩关闭后释放所有截图，之后才完成的后台截图会被直接丢弃。
+     * 显示器列表一并清空，不再持有截图或设备的引用
+     */
+    public void flush() {
+        active = false;
+        session++;
+        listener = null;
+        for (Screen screen : screens) {
+            if (screen.background != null) {
+                recycleBuffer(screen.background.flush());
+                screen.background = null;
+            }
+        }
+        screens.clear();
+    }
+
+    /**
+     * 插件卸载时调用，清空复用池
+     */
+    public void dispose() {
+        flush();
+        synchronized (pool) {
+            pool.clear();
+        }
+    }
+}
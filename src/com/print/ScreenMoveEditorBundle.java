@@ -0,0 +1,59 @@
+package com.print;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 国际化消息，资源文件为 messages/plugin_*.properties
+ * @Version: 1.0
+ */
+public final class ScreenMoveEditorBundle {
+    private static final String BUNDLE = "messages.plugin";
+
+    // 已加载的资源包和对应的语言；语言变化时重新加载
+    private static final class Loaded {
+        final Locale locale;
+        final ResourceBundle bundle;
+
+        Loaded(Locale locale, ResourceBundle bundle) {
+            this.locale = locale;
+            this.bundle = bundle;
+        }
+    }
+
+    private static volatile Loaded loaded;
+
+    private ScreenMoveEditorBundle() {
+    }
+
+    /**
+     * 获取国际化消息
+     */
+    public static String message(String key) {
+        try {
+            return bundle().getString(key);
+        } catch (Exception e) {
+            // 如果国际化失败，返回默认值
+            switch (key) {
+                case "unnamed.file":
+                    return "未命名";
+                default:
+                    return key;
+            }
+        }
+    }
+
+    // 资源包只在第一次使用或语言变化时加载，之后直接查表
+    private static ResourceBundle bundle() {
+        Locale locale = Locale.getDefault();
+        Loaded current = loaded;
+        if (current == null || !current.locale.equals(locale)) {
+            current = new Loaded(locale, ResourceBundle.getBundle(BUNDLE, locale,
+                    ScreenMoveEditorBundle.class.getClassLoader()));
+            loaded = current;
+        }
+        return current.bundle;
+    }
+}
@@ -0,0 +1,146 @@
+package com.print;
+
+import com.intellij.openapi.options.Configurable;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 设置页：Settings > Tools > ScreenMoveEditor
+ * @Version: 1.0
+ */
+public class ScreenMoveEditorConfigurable implements Configurable {
+    private JPanel panel;
+    private JCheckBox incrementalOverlayRepaint;
+    private JCheckBox roundedPanelWindows;
+    private JCheckBox rangeLimitedPanels;
+    private JSpinner rangeLimitedMinLines;
+    private JSpinner rangeMarginLines;
+    private JSpinner maxLivePanels;
+    private JSpinner hibernateIdleMinutes;
+    private JCheckBox restorePanelLayout;
+    private JSpinner unfocusedPanelRefreshRate;
+    private JCheckBox preloadOnIdle;
+    private JCheckBox selectionLoupe;
+    private JCheckBox snapSelectionToLines;
+
+    @Override
+    public String getDisplayName() {
+        return ScreenMoveEditorBundle.message("settings.display.name");
+    }
+
+    @Override
+    public JComponent createComponent() {
+        incrementalOverlayRepaint = new JCheckBox(ScreenMoveEditorBundle.message("settings.incremental.overlay.repaint"));
+        roundedPanelWindows = new JCheckBox(ScreenMoveEditorBundle.message("settings.rounded.panel.windows"));
+        rangeLimitedPanels = new JCheckBox(ScreenMoveEditorBundle.message("settings.range.limited.panels"));
+        rangeLimitedMinLines = new JSpinner(new SpinnerNumberModel(3000, 0, 1000000, 500));
+        rangeMarginLines = new JSpinner(new SpinnerNumberModel(20, 1, 1000, 5));
+        maxLivePanels = new JSpinner(new SpinnerNumberModel(0, 0, 100, 1));
+        hibernateIdleMinutes = new JSpinner(new SpinnerNumberModel(10, 0, 1440, 1));
+        restorePanelLayout = new JCheckBox(ScreenMoveEditorBundle.message("settings.restore.panel.layout"));
+        unfocusedPanelRefreshRate = new JSpinner(new SpinnerNumberModel(10, 0, 240, 1));
+        preloadOnIdle = new JCheckBox(ScreenMoveEditorBundle.message("settings.preload.on.idle"));
+        selectionLoupe = new JCheckBox(ScreenMoveEditorBundle.message("settings.selection.loupe"));
+        snapSelectionToLines = new JCheckBox(ScreenMoveEditorBundle.message("settings.snap.selection.to.lines"));
+
+        panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.add(incrementalOverlayRepaint);
+        panel.add(selectionLoupe);
+        panel.add(snapSelectionToLines);
+        panel.add(roundedPanelWindows);
+        panel.add(rangeLimitedPanels);
+        panel.add(labeled("settings.range.limited.min.lines", rangeLimitedMinLines));
+        panel.add(labeled("settings.range.margin.lines", rangeMarginLines));
+        panel.add(labeled("settings.max.live.panels", maxLivePanels));
+        panel.add(labeled("settings.hibernate.idle.minutes", hibernateIdleMinutes));
+        panel.add(restorePanelLayout);
+        panel.add(labeled("settings.unfocused.panel.refresh.rate", unfocusedPanelRefreshRate));
+        panel.add(preloadOnIdle);
+
+        JPanel wrapper = new JPanel(new BorderLayout());
+        wrapper.add(panel, BorderLayout.NORTH);
+        reset();
+        return wrapper;
+    }
+
+    // 左侧文字、右侧输入框的一行
+    private static JComponent labeled(String key, JComponent field) {
+        JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        row.setAlignmentX(Component.LEFT_ALIGNMENT);
+        row.add(new JLabel(ScreenMoveEditorBundle.message(key)));
+        row.add(field);
+        return row;
+    }
+
+    @Override
+    public boolean isModified() {
+        ScreenMoveEditorSettings.State state = ScreenMoveEditorSettings.current();
+        return incrementalOverlayRepaint.isSelected() != state.incrementalOverlayRepaint
+                || roundedPanelWindows.isSelected() != state.roundedPanelWindows
+                || rangeLimitedPanels.isSelected() != state.rangeLimitedPanels
+                || (Integer) rangeLimitedMinLines.getValue() != state.rangeLimitedMinLines
+                || (Integer) rangeMarginLines.getValue() != state.rangeMarginLines
+                || (Integer) maxLivePanels.getValue() != state.maxLivePanels
+                || (Integer) hibernateIdleMinutes.getValue() != state.hibernateIdleMinutes
+                || restorePanelLayout.isSelected() != state.restorePanelLayout
+                || (Integer) unfocusedPanelRefreshRate.getValue() != state.unfocusedPanelRefreshRate
+                || preloadOnIdle.isSelected() != state.preloadOnIdle
+                || selectionLoupe.isSelected() != state.selectionLoupe
+                || snapSelectionToLines.isSelected() != state.snapSelectionToLines;
+    }
+
+    @Override
+    public void apply() {
+        ScreenMoveEditorSettings.State state = ScreenMoveEditorSettings.current();
+        state.incrementalOverlayRepaint = incrementalOverlayRepaint.isSelected();
+        state.roundedPanelWindows = roundedPanelWindows.isSelected();
+        state.rangeLimitedPanels = rangeLimitedPanels.isSelected();
+        state.rangeLimitedMinLines = (Integer) rangeLimitedMinLines.getValue();
+        state.rangeMarginLines = (Integer) rangeMarginLines.getValue();
+        state.maxLivePanels = (Integer) maxLivePanels.getValue();
+        state.hibernateIdleMinutes = (Integer) hibernateIdleMinutes.getValue();
+        state.restorePanelLayout = restorePanelLayout.isSelected();
+        state.unfocusedPanelRefreshRate = (Integer) unfocusedPanelRefreshRate.getValue();
+        state.preloadOnIdle = preloadOnIdle.isSelected();
+        state.selectionLoupe = selectionLoupe.isSelected();
+        state.snapSelectionToLines = snapSelectionToLines.isSelected();
+    }
+
+    @Override
+    public void reset() {
+        ScreenMoveEditorSettings.State state = ScreenMoveEditorSettings.current();
+        incrementalOverlayRepaint.setSelected(state.incrementalOverlayRepaint);
+        roundedPanelWindows.setSelected(state.roundedPanelWindows);
+        rangeLimitedPanels.setSelected(state.rangeLimitedPanels);
+        rangeLimitedMinLines.setValue(state.rangeLimitedMinLines);
+        rangeMarginLines.setValue(state.rangeMarginLines);
+        maxLivePanels.setValue(state.maxLivePanels);
+        hibernateIdleMinutes.setValue(state.hibernateIdleMinutes);
+        restorePanelLayout.setSelected(state.restorePanelLayout);
+        unfocusedPanelRefreshRate.setValue(state.unfocusedPanelRefreshRate);
+        preloadOnIdle.setSelected(state.preloadOnIdle);
+        selectionLoupe.setSelected(state.selectionLoupe);
+        snapSelectionToLines.setSelected(state.snapSelectionToLines);
+    }
+
+    @Override
+    public void disposeUIResources() {
+        panel = null;
+        incrementalOverlayRepaint = null;
+        roundedPanelWindows = null;
+        rangeLimitedPanels = null;
+        rangeLimitedMinLines = null;
+        rangeMarginLines = null;
+        maxLivePanels = null;
+        hibernateIdleMinutes = null;
+        restorePanelLayout = null;
+        unfocusedPanelRefreshRate = null;
+        preloadOnIdle = null;
+        selectionLoupe = null;
+        snapSelectionToLines = null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.print;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 插件全局设置，持久化到 screenMoveEditor.xml
+ * @Version: 1.0
+ */
+@State(name = "ScreenMoveEditorSettings", storages = @Storage("screenMoveEditor.xml"))
+public class ScreenMoveEditorSettings implements PersistentStateComponent<ScreenMoveEditorSettings.State> {
+
+    public static class State {
+        // 截图遮罩只重绘选区变化的区域（关闭后每次拖动都整屏重绘）
+        public boolean incrementalOverlayRepaint = true;
+        // 悬浮框使用圆角不规则窗口；部分 Linux/X11 环境下每次缩放重建窗口区域代价较高，可关闭改用矩形窗口
+        public boolean roundedPanelWindows = true;
+        // 大文件的悬浮框只加载选区附近的行，不为整个文件排版
+        public boolean rangeLimitedPanels = true;
+        // 文件行数达到该值才启用片段模式；小文件仍用完整编辑器，保留代码高亮、错误提示等全部功能
+        public int rangeLimitedMinLines = 3000;
+        // 片段在选区上下多保留的行数，滚动到边缘时也按这个行数扩展
+        public int rangeMarginLines = 20;
+        // 每个项目同时存在的悬浮框上限，超出时关闭最久未使用的；0 表示不限制
+        public int maxLivePanels = 0;
+        // 悬浮框多少分钟未使用后释放编辑器进入休眠；0 表示只在隐藏或最小化时休眠
+        public int hibernateIdleMinutes = 10;
+        // 重新打开项目时恢复上次的悬浮框布局
+        public boolean restorePanelLayout = true;
+        // 没有焦点的悬浮框每秒最多同步和重绘的次数；0 表示所有悬浮框都实时更新
+        public int unfocusedPanelRefreshRate = 10;
+        // 项目打开后在空闲时预加载截图和悬浮框相关的类、字体和绘制管线，第一次按 F4 不再变慢
+        public boolean preloadOnIdle = true;
+        // 截图遮罩中在光标旁显示放大镜
+        public boolean selectionLoupe = true;
+        // 框选的上下边吸附到编辑器的行边界（按住 Ctrl 临时关闭）
+        public boolean snapSelectionToLines = true;
+    }
+
+    private State state = new State();
+
+    public static ScreenMoveEditorSettings getInstance() {
+        return ServiceManager.getService(ScreenMoveEditorSettings.class);
+    }
+
+    /**
+     * 服务未注册时（例如插件描述文件未更新）退回默认值，避免空指针
+     */
+    public static State current() {
+        ScreenMoveEditorSettings settings = getInstance();
+        return settings != null ? settings.state : new State();
+    }
+
+    @Override
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(State state) {
+        XmlSerializerUtil.copyBean(state, this.state);
+    }
+}
@@ -0,0 +1,336 @@
+package com.print;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.colors.EditorColorsScheme;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.highlighter.EditorHighlighter;
+import com.intellij.openapi.editor.highlighter.EditorHighlighterFactory;
+import com.intellij.openapi.editor.highlighter.HighlighterClient;
+import com.intellij.openapi.editor.highlighter.HighlighterIterator;
+import com.intellij.openapi.editor.markup.TextAttributes;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.tree.IElementType;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 悬浮框共享语法高亮：同一个文档的所有悬浮框都从同一份词法结果取色，不再各自对整个文件做词法分析。
+ * 优先复用主编辑器的高亮器（它本来就随输入增量更新），主编辑器关闭后才为该文档创建一份自己的高亮器，
+ * 同样注册为文档监听器增量更新。片段模式的悬浮框按片段在原文档中的偏移读取同一份结果；
+ * 不带编辑器的只读参考视图也通过 share 读取同一份结果。
+ * 词法结果变化时只重绘可见区域受影响的悬浮框，没有焦点的悬浮框交给 PanelUpdateScheduler 按节拍重绘。只在 EDT 上访问
+ * @Version: 1.0
+ */
+public final class SharedHighlighters {
+    private static final Map<Document, Entry> entries = new HashMap<>();
+
+    private SharedHighlighters() {
+    }
+
+    /**
+     * 共享高亮的使用方，文档或词法结果变化时收到通知
+     */
+    public interface Client {
+        /**
+         * @param start 变化区域在原文档中的起始偏移
+         * @param end   变化区域在原文档中的结束偏移
+         */
+        void highlightingChanged(int start, int end);
+    }
+
+    /**
+     * 同一文档的共享高亮状态
+     */
+    private static final class Entry implements HighlighterClient, DocumentListener {
+        final Project project;
+        final VirtualFile file;
+        final Document document;
+        final List<Client> clients = new ArrayList<>();
+        // 主编辑器，关闭后置空并改用 owned
+        Editor source;
+        EditorHighlighter owned;
+
+        Entry(Project project, VirtualFile file, Document document) {
+            this.project = project;
+            this.file = file;
+            this.document = document;
+        }
+
+        EditorHighlighter highlighter() {
+            if (source != null && !source.isDisposed()) {
+                EditorHighlighter highlighter = ((EditorEx) source).getHighlighter();
+                // 主编辑器的高亮器不能是共享视图，否则 View 会迭代到自己
+                if (!(highlighter instanceof View)) return highlighter;
+            }
+            source = null;
+            if (owned == null) {
+                owned = EditorHighlighterFactory.getInstance().createEditorHighlighter(project, file);
+                owned.setEditor(this);
+                owned.setText(document.getCharsSequence());
+                document.addDocumentListener(owned);
+            }
+            return owned;
+        }
+
+        // 查找显示同一文档的主编辑器：排除正在安装的悬浮框编辑器（此时还不在 clients 中）
+        // 和已经装上共享视图的编辑器
+        void findSource(Editor installing) {
+            for (Editor editor : EditorFactory.getInstance().getEditors(document)) {
+                if (editor != installing && editor instanceof EditorEx && viewOf(this, editor) == null
+                        && !editor.isDisposed() && editor.getProject() == project
+                        && !(((EditorEx) editor).getHighlighter() instanceof View)) {
+                    source = editor;
+                    return;
+                }
+            }
+        }
+
+        void release() {
+            document.removeDocumentListener(this);
+            if (owned != null) document.removeDocumentListener(owned);
+            owned = null;
+            source = null;
+        }
+
+        @Override
+        public Project getProject() {
+            return project;
+        }
+
+        @Override
+        public Document getDocument() {
+            return document;
+        }
+
+        // 词法变化可能超出编辑行（例如输入块注释开头），由各使用方决定重绘范围
+        @Override
+        public void repaint(int start, int end) {
+            notifyClients(start, end);
+        }
+
+        @Override
+        public void documentChanged(DocumentEvent e) {
+            notifyClients(e.getOffset(), e.getOffset() + e.getNewLength());
+        }
+
+        void notifyClients(int start, int end) {
+            for (int i = 0; i < clients.size(); i++) {
+                clients.get(i).highlightingChanged(start, end);
+            }
+        }
+    }
+
+    /**
+     * 给悬浮框编辑器装上共享高亮器。编辑器应以不带文件的方式创建（之后再用 setFile 关联），避免创建时先做一遍整文件词法分析
+     *
+     * @param range 片段模式下的片段文档，完整编辑器传 null
+     */
+    public static void install(Editor editor, Project project, VirtualFile file, Document document,
+                               RangeLimitedDocument range) {
+        if (!(editor instanceof EditorEx) || file == null) return;
+        Entry entry = entryFor(project, file, document, editor);
+        View view = new View(entry, range, editor);
+        entry.clients.add(view);
+        ((EditorEx) editor).setHighlighter(view);
+    }
+
+    /**
+     * 不带编辑器的使用方（只读参考视图）取得共享高亮器，迭代时使用原文档偏移；用完调用 release
+     */
+    public static EditorHighlighter share(Project project, VirtualFile file, Document document, Client client) {
+        Entry entry = entryFor(project, file, document, null);
+        entry.clients.add(client);
+        return new View(entry, null, null);
+    }
+
+    public static void release(Client client) {
+        for (Entry entry : entries.values()) {
+            if (entry.clients.remove(client)) {
+                releaseIfUnused(entry);
+                return;
+            }
+        }
+    }
+
+    private static Entry entryFor(Project project, VirtualFile file, Document document, Editor installing) {
+        Entry entry = entries.get(document);
+        if (entry == null) {
+            entry = new Entry(project, file, document);
+            entry.findSource(installing);
+            document.addDocumentListener(entry);
+            entries.put(document, entry);
+        }
+        return entry;
+    }
+
+    private static View viewOf(Entry entry, Editor editor) {
+        for (Client client : entry.clients) {
+            if (client instanceof View && ((View) client).editor == editor) return (View) client;
+        }
+        return null;
+    }
+
+    private static void releaseIfUnused(Entry entry) {
+        if (entry.clients.isEmpty()) {
+            entry.release();
+            entries.remove(entry.document);
+        }
+    }
+
+    /**
+     * 悬浮框关闭时调用，文档的最后一个悬浮框关闭后释放共享状态
+     */
+    public static void uninstall(Editor editor) {
+        for (Entry entry : entries.values()) {
+            View view = viewOf(entry, editor);
+            if (view != null) {
+                PanelUpdateScheduler.getInstance().cancel(view);
+                entry.clients.remove(view);
+                releaseIfUnused(entry);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 悬浮框编辑器看到的高亮器：不持有词法状态，迭代时直接读共享高亮器
+     */
+    private static final class View implements EditorHighlighter, Client, PanelUpdateScheduler.Target {
+        private final Entry entry;
+        private final RangeLimitedDocument range;
+        private final Editor editor;
+
+        View(Entry entry, RangeLimitedDocument range, Editor editor) {
+            this.entry = entry;
+            this.range = range;
+            this.editor = editor;
+        }
+
+        // 变化落在可见区内才重绘；有焦点时立即重绘，否则按节拍合并
+        @Override
+        public void highlightingChanged(int start, int end) {
+            if (editor == null || editor.isDisposed() || !intersectsVisibleArea(start, end)) return;
+            if (PanelUpdateScheduler.isRealTime(editor.getComponent())) {
+                applyUpdate();
+            } else {
+                PanelUpdateScheduler.getInstance().schedule(this);
+            }
+        }
+
+        // start/end 为原文档偏移
+        private boolean intersectsVisibleArea(int start, int end) {
+            Rectangle visible = editor.getScrollingModel().getVisibleArea();
+            if (visible == null || visible.height <= 0) return false;
+            Document shown = editor.getDocument();
+            int lineCount = shown.getLineCount();
+            if (lineCount == 0) return true;
+            int base = range != null ? range.getStartOffset() : 0;
+            int topLine = Math.min(lineCount - 1, editor.xyToLogicalPosition(new Point(0, visible.y)).line);
+            int bottomLine = Math.min(lineCount - 1,
+                    editor.xyToLogicalPosition(new Point(0, visible.y + visible.height)).line);
+            return end >= base + shown.getLineStartOffset(topLine) && start <= base + shown.getLineEndOffset(bottomLine);
+        }
+
+        @Override
+        public Component getUpdateComponent() {
+            return editor.getComponent();
+        }
+
+        // 悬浮框整个可见区重绘，由 RepaintManager 合并
+        @Override
+        public void applyUpdate() {
+            if (!editor.isDisposed()) editor.getContentComponent().repaint();
+        }
+
+        @Override
+        public HighlighterIterator createIterator(int start) {
+            EditorHighlighter shared = entry.highlighter();
+            if (range == null) return shared.createIterator(start);
+            int base = range.getStartOffset();
+            return new RangeIterator(shared.createIterator(base + start), base, range.getEndOffset(), editor.getDocument());
+        }
+
+        // 文本和文档变化都由共享高亮器处理，这里不再重复分析
+        @Override
+        public void setText(CharSequence text) {
+        }
+
+        @Override
+        public void setEditor(HighlighterClient editor) {
+        }
+
+        @Override
+        public void setColorScheme(EditorColorsScheme scheme) {
+        }
+    }
+
+    /**
+     * 把原文档上的迭代器平移到片段坐标，并截断在片段范围内。
+     * 片段延后同步期间文字比原文档旧，起止都截断在片段长度内，超出片段的记号视为结束；同步后由片段重绘纠正颜色
+     */
+    private static final class RangeIterator implements HighlighterIterator {
+        private final HighlighterIterator delegate;
+        private final int base;
+        private final int limit;
+        private final Document document;
+
+        RangeIterator(HighlighterIterator delegate, int base, int limit, Document document) {
+            this.delegate = delegate;
+            this.base = base;
+            this.limit = limit;
+            this.document = document;
+        }
+
+        @Override
+        public TextAttributes getTextAttributes() {
+            return delegate.getTextAttributes();
+        }
+
+        @Override
+        public int getStart() {
+            return Math.min(Math.max(0, delegate.getStart() - base), document.getTextLength());
+        }
+
+        @Override
+        public IElementType getTokenType() {
+            return delegate.getTokenType();
+        }
+
+        @Override
+        public int getEnd() {
+            return Math.min(Math.min(limit, delegate.getEnd()) - base, document.getTextLength());
+        }
+
+        @Override
+        public void advance() {
+            delegate.advance();
+        }
+
+        @Override
+        public void retreat() {
+            delegate.retreat();
+        }
+
+        @Override
+        public boolean atEnd() {
+            return delegate.atEnd() || delegate.getStart() >= limit || delegate.getEnd() <= base
+                    || delegate.getStart() - base >= document.getTextLength();
+        }
+
+        @Override
+        public Document getDocument() {
+            return document;
+        }
+    }
+}
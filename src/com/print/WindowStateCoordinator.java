@@ -0,0 +1,120 @@
+package com.print;
+
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author: xiongd
+ * @CreateTime: 2026-10-18
+ * @Description: 主窗口状态协调器：每个主窗口只挂一个监听，按窗口记录最小化状态，
+ * 状态真正变化时才通知登记的监听者（每个项目的 FloatingPanelManager 一个），由它一次处理该窗口的全部悬浮框。
+ * 窗口关闭时自动移除监听。只在 EDT 上访问
+ * @Version: 1.0
+ */
+public final class WindowStateCoordinator {
+    private static final WindowStateCoordinator INSTANCE = new WindowStateCoordinator();
+
+    /**
+     * 主窗口状态变化的回调
+     */
+    public interface Listener {
+        void ownerIconifiedChanged(Window owner, boolean iconified);
+    }
+
+    private static class FrameState {
+        boolean iconified;
+        final List<Listener> listeners = new ArrayList<>(2);
+    }
+
+    private final Map<Window, FrameState> frames = new IdentityHashMap<>();
+    private final WindowAdapter frameListener = new WindowAdapter() {
+        @Override
+        public void windowStateChanged(WindowEvent e) {
+            update(e.getWindow(), (e.getNewState() & Frame.ICONIFIED) != 0);
+        }
+
+        @Override
+        public void windowIconified(WindowEvent e) {
+            update(e.getWindow(), true);
+        }
+
+        @Override
+        public void windowDeiconified(WindowEvent e) {
+            update(e.getWindow(), false);
+        }
+
+        @Override
+        public void windowClosed(WindowEvent e) {
+            Window window = e.getWindow();
+            if (frames.remove(window) != null) detach(window);
+        }
+    };
+
+    private WindowStateCoordinator() {
+    }
+
+    public static WindowStateCoordinator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 关注 owner 的状态变化；同一窗口只挂一次 AWT 监听，同一监听者重复登记无效
+     */
+    public void watch(Window owner, Listener listener) {
+        if (owner == null) return;
+        FrameState state = frames.get(owner);
+        if (state == null) {
+            state = new FrameState();
+            state.iconified = isIconified(owner);
+            frames.put(owner, state);
+            owner.addWindowListener(frameListener);
+            owner.addWindowStateListener(frameListener);
+        }
+        if (!state.listeners.contains(listener)) state.listeners.add(listener);
+    }
+
+    /**
+     * 取消监听者在所有窗口上的登记，窗口没有其他监听者时移除 AWT 监听
+     */
+    public void unwatch(Listener listener) {
+        frames.entrySet().removeIf(entry -> {
+            FrameState state = entry.getValue();
+            state.listeners.remove(listener);
+            if (!state.listeners.isEmpty()) return false;
+            detach(entry.getKey());
+            return true;
+        });
+    }
+
+    /**
+     * 记录的最小化状态；未登记的窗口直接查询
+     */
+    public boolean isOwnerIconified(Window owner) {
+        FrameState state = frames.get(owner);
+        return state != null ? state.iconified : isIconified(owner);
+    }
+
+    // 最小化会同时触发 windowStateChanged 和 windowIconified，只有状态变化的那一次通知
+    private void update(Window window, boolean iconified) {
+        FrameState state = frames.get(window);
+        if (state == null || state.iconified == iconified) return;
+        state.iconified = iconified;
+        for (int i = 0; i < state.listeners.size(); i++) {
+            state.listeners.get(i).ownerIconifiedChanged(window, iconified);
+        }
+    }
+
+    private void detach(Window window) {
+        window.removeWindowListener(frameListener);
+        window.removeWindowStateListener(frameListener);
+    }
+
+    private static boolean isIconified(Window window) {
+        return window instanceof Frame && (((Frame) window).getExtendedState() & Frame.ICONIFIED) != 0;
+    }
+}